@@ -0,0 +1,63 @@
+package com.testsuite.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the selected benchmarks once per thread count and writes one JSON result file per count, since JMH
+// takes a single thread count per run. Driven by the benchmarks Maven profile through system properties:
+//   benchmark.include    regex of benchmarks to run
+//   benchmark.threads    comma-separated thread counts, e.g. 1,4,16
+//   benchmark.params     overrides for @Param values, e.g. payloadBytes=1024|1048576;objectCount=1000
+//   benchmark.largePayloadMaxThreads  highest thread count that runs the 256 MiB payload, unless
+//                        payloadBytes is given in benchmark.params
+//   benchmark.jvmArgs    extra arguments for the forked benchmark JVMs
+//   benchmark.resultDir  where threads-<n>.json is written
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("benchmark.include", BenchmarkRunner.class.getPackageName() + ".*");
+        String threads = System.getProperty("benchmark.threads", "1");
+        String params = System.getProperty("benchmark.params", "");
+        String jvmArgs = System.getProperty("benchmark.jvmArgs", "");
+        int largePayloadMaxThreads = Integer.getInteger("benchmark.largePayloadMaxThreads", 4);
+        Path resultDir = Path.of(System.getProperty("benchmark.resultDir", "target/jmh"));
+        Files.createDirectories(resultDir);
+
+        for (String count : threads.split(",")) {
+            int threadCount = Integer.parseInt(count.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDir.resolve("threads-" + threadCount + ".json").toString());
+            if (!jvmArgs.isBlank()) {
+                options.jvmArgsAppend(jvmArgs.trim().split("\\s+"));
+            }
+            boolean payloadsGiven = false;
+            for (String param : params.split(";")) {
+                if (param.isBlank()) {
+                    continue;
+                }
+                String[] nameAndValues = param.split("=", 2);
+                if (nameAndValues.length != 2) {
+                    throw new IllegalArgumentException("Expected name=value|value in benchmark.params: " + param);
+                }
+                options.param(nameAndValues[0].trim(), nameAndValues[1].trim().split("\\|"));
+                payloadsGiven |= nameAndValues[0].trim().equals("payloadBytes");
+            }
+            if (!payloadsGiven && threadCount > largePayloadMaxThreads) {
+                options.param("payloadBytes", ObjectBenchmarks.BOUNDED_PAYLOAD_BYTES);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
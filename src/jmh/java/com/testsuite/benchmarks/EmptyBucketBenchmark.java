@@ -0,0 +1,66 @@
+package com.testsuite.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.testsuite.utils.DeleteSummary;
+
+// emptyBucket destroys its own input, so each iteration reseeds outside the measurement and times a single
+// call. Every benchmark thread empties its own bucket, so higher thread counts measure concurrent purges.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EmptyBucketBenchmark extends LocalS3Benchmark {
+    @Param({"1000", "10000"})
+    public int objectCount;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stop();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadBucket {
+        public String name;
+
+        @Setup(Level.Iteration)
+        public void reseed(EmptyBucketBenchmark benchmark) {
+            if (name == null) {
+                name = benchmark.s3.generateRandomBucketName();
+                benchmark.s3.createBucket(name);
+            }
+            benchmark.seed(name, benchmark.objectCount);
+        }
+    }
+
+    @Benchmark
+    public DeleteSummary emptyBucket(ThreadBucket target) {
+        DeleteSummary summary = s3.emptyBucket(target.name);
+        if (!summary.isSuccessful()) {
+            throw new IllegalStateException(summary.failures().size() + " objects could not be deleted");
+        }
+        return summary;
+    }
+}
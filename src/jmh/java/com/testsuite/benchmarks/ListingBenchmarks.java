@@ -0,0 +1,49 @@
+package com.testsuite.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+
+// First-page listing cost as the bucket grows. Pages are capped at 1000 keys and the stand-in reads only
+// the keys it returns, so past 1000 objects this mostly measures the XML unmarshalling of a full page.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ListingBenchmarks extends LocalS3Benchmark {
+    @Param({"100", "1000", "10000"})
+    public int objectCount;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        start();
+        seed(bucket, objectCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stop();
+    }
+
+    @Benchmark
+    public ListObjectsV2Response listObjectsV2() {
+        return s3.listObjectsV2(bucket);
+    }
+}
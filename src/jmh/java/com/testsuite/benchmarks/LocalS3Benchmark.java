@@ -0,0 +1,53 @@
+package com.testsuite.benchmarks;
+
+import java.io.IOException;
+
+import com.testsuite.utils.BucketSeeder;
+import com.testsuite.utils.LocalS3Server;
+import com.testsuite.utils.S3AsyncUtilities;
+import com.testsuite.utils.S3Utilities;
+import com.testsuite.utils.SeedSummary;
+
+import software.amazon.awssdk.regions.Region;
+
+// Shared lifecycle for benchmarks that run against the in-process S3 stand-in, so client-layer changes are
+// measured without network noise. Subclasses call start() and stop() from their own trial setup and teardown.
+public abstract class LocalS3Benchmark {
+    static final int MAX_CONNECTIONS = 256;
+    static final String CONTENT_TYPE = "text/plain";
+    static final int SEED_OBJECT_BYTES = 1024;
+
+    protected LocalS3Server server;
+    protected S3Utilities s3;
+    protected String bucket;
+
+    protected void start() throws IOException {
+        server = new LocalS3Server();
+        s3 = new S3Utilities(Region.US_EAST_1, "benchmark", "benchmark", server.endpoint(), MAX_CONNECTIONS);
+        bucket = s3.generateRandomBucketName();
+        s3.createBucket(bucket);
+    }
+
+    // fills the bucket with small objects spread over a few prefixes; not part of any measurement
+    protected void seed(String bucket, long count) {
+        S3AsyncUtilities async = new S3AsyncUtilities(Region.US_EAST_1, "benchmark", "benchmark", server.endpoint(), MAX_CONNECTIONS);
+        try {
+            SeedSummary summary = new BucketSeeder(async).seed(bucket, count, new BucketSeeder.Layout("seed", 2, 16, false),
+                    BucketSeeder.SizeDistribution.fixed(SEED_OBJECT_BYTES), null, null);
+            if (summary.failed() > 0) {
+                throw new IllegalStateException(summary.failed() + " of " + count + " seed objects failed");
+            }
+        } finally {
+            async.close();
+        }
+    }
+
+    protected void stop() {
+        if (s3 != null) {
+            s3.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.testsuite.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.testsuite.utils.FileCreator;
+import com.testsuite.utils.MultipartUploader;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+// Single-object put/get paths across payload sizes. Each benchmark thread writes its own key, so the
+// stand-in holds one object per thread and method rather than one per invocation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ObjectBenchmarks extends LocalS3Benchmark {
+    static final String READ_KEY = "read/object";
+    static final int RANGE_BYTES = 64 * 1024;
+
+    @Param({"1024", "65536", "1048576", "16777216", "268435456"})
+    public int payloadBytes;
+
+    // every thread's put holds a copy of the payload in the client and one in the in-memory stand-in, so
+    // BenchmarkRunner drops the 256 MiB size above benchmark.largePayloadMaxThreads threads
+    static final String[] BOUNDED_PAYLOAD_BYTES = {"1024", "65536", "1048576", "16777216"};
+
+    private byte[] payload;
+    private Path file;
+    private long rangeStart;
+    private long rangeEnd;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        start();
+        payload = FileCreator.createTextContent("benchmark", payloadBytes);
+        file = Files.createTempFile("s3-benchmark-", ".txt");
+        Files.write(file, payload);
+        s3.putObject(bucket, READ_KEY, payload, CONTENT_TYPE);
+        // a slice from the middle of the object, or the whole object when it is smaller than the slice
+        long length = Math.min(RANGE_BYTES, payloadBytes);
+        rangeStart = (payloadBytes - length) / 2;
+        rangeEnd = rangeStart + length - 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stop();
+        Files.deleteIfExists(file);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        public String key;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            key = "write/thread-" + NEXT.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    public PutObjectResponse putObject(ThreadKey thread) {
+        return s3.putObject(bucket, thread.key, payload, CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public PutObjectResponse putFileObject(ThreadKey thread) throws IOException {
+        return s3.putFileObject(bucket, thread.key, file, CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public long getObjectAsStream(Blackhole blackhole) throws IOException {
+        try (ResponseInputStream<GetObjectResponse> in = s3.getObjectAsStream(bucket, READ_KEY)) {
+            return drain(in, blackhole);
+        }
+    }
+
+    @Benchmark
+    public long getObjectRange(Blackhole blackhole) throws IOException {
+        try (ResponseInputStream<GetObjectResponse> in = s3.getObjectRange(bucket, READ_KEY, rangeStart, rangeEnd)) {
+            return drain(in, blackhole);
+        }
+    }
+
+    // createMultipartUpload, uploadPart and completeMultipartUpload through the uploader; payloads below
+    // the minimum part size go up as a single part
+    @Benchmark
+    public CompleteMultipartUploadResponse multipartUpload(ThreadKey thread) throws IOException {
+        return new MultipartUploader(s3).upload(bucket, thread.key + "-multipart", file, CONTENT_TYPE);
+    }
+
+    private static long drain(InputStream in, Blackhole blackhole) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            blackhole.consume(buffer);
+            total += read;
+        }
+        return total;
+    }
+}
@@ -2,36 +2,66 @@ package com.testsuite.tests;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32C;
 
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.testsuite.utils.AdaptiveConcurrencyLimiter;
+import com.testsuite.utils.BucketPool;
+import com.testsuite.utils.BucketSeeder;
 import com.testsuite.utils.Config;
 import com.testsuite.utils.FileCreator;
+import com.testsuite.utils.LoadGenerator;
+import com.testsuite.utils.LoadReport;
+import com.testsuite.utils.LocalS3Server;
+import com.testsuite.utils.MultipartUploader;
+import com.testsuite.utils.ParallelLister;
+import com.testsuite.utils.PurgeProgress;
+import com.testsuite.utils.S3AsyncUtilities;
+import com.testsuite.utils.S3ClientRegistry;
+import com.testsuite.utils.S3ObjectCache;
 import com.testsuite.utils.S3Utilities;
+import com.testsuite.utils.S3Waiters;
+import com.testsuite.utils.WaiterTimeoutException;
+import com.testsuite.utils.WorkloadSpec;
 
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.model.BucketVersioningStatus;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PublicAccessBlockConfiguration;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
 import software.amazon.awssdk.services.s3.model.StorageClass;
 
 public class S3Tests {
 
     private S3Utilities s3Utils;
+    private BucketPool bucketPool;
     private String bucketName;
     private String folderPath;
 
@@ -46,14 +76,14 @@ public class S3Tests {
                 throw new RuntimeException("Failed to create test resources directory", e);
             }
         }
+        bucketPool = new BucketPool(S3ClientRegistry.fromConfig());
     }
 
     @BeforeMethod(alwaysRun = true)
     public void setup() {
-        String region = Config.get("awsRegion");
-        String awsKey = Config.get("awsKey");
-        String awsSecret = Config.get("awsSecret");
-        s3Utils = new S3Utilities(Region.of(region), awsKey, awsSecret);
+        s3Utils = S3ClientRegistry.fromConfig();
+        // a name left over from the previous test may be a pooled bucket that was already released
+        bucketName = null;
     }
 
     @Test
@@ -86,32 +116,27 @@ public class S3Tests {
 
     @Test
     public void PutAnObjectToABucket_004() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String objectKey = "test-object";
         String content = "Hello, S3!";
         var putRes = s3Utils.putObject(bucketName, objectKey, content.getBytes(), "text/plain");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutFileToABucket_005() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String objectKey = "test-file";
         String content = "Hello, S3!";
         Path tempFile = Files.createTempFile("test-file", ".txt");
         Files.writeString(tempFile, content);
         var putRes = s3Utils.putFileObject(bucketName, objectKey, tempFile, "text/plain");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ListFilesInBucket_006() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String objectKey1 = "test-object-1";
         String objectKey2 = "test-object-2";
         String content1 = "Hello, S3 Object 1!";
@@ -126,26 +151,22 @@ public class S3Tests {
         Assert.assertNotNull(listRes);
         Assert.assertTrue(listRes.contents().stream().anyMatch(o -> o.key().equals(objectKey1)), "Object 1 not found in list");
         Assert.assertTrue(listRes.contents().stream().anyMatch(o -> o.key().equals(objectKey2)), "Object 2 not found in list");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DeleteObjectFromBucket_007() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String objectKey = "test-object-to-delete";
         String content = "This object will be deleted.";
         s3Utils.putObject(bucketName, objectKey, content.getBytes(), "text/plain");
         var deleteRes = s3Utils.deleteObject(bucketName, objectKey);
         Assert.assertNotNull(deleteRes);
         Assert.assertTrue(deleteRes.sdkHttpResponse().isSuccessful(), "Object deletion failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DeleteFileFromABucket_008() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String objectKey = "test-file-to-delete";
         String content = "This file will be deleted.";
         Path tempFile = Files.createTempFile("test-file", ".txt");
@@ -154,144 +175,118 @@ public class S3Tests {
         var deleteRes = s3Utils.deleteObject(bucketName, objectKey);
         Assert.assertNotNull(deleteRes);
         Assert.assertTrue(deleteRes.sdkHttpResponse().isSuccessful(), "File deletion failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void GetHeadBucket_009() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         var headRes = s3Utils.headBucket(bucketName);
         Assert.assertNotNull(headRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void GetObject_010() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String objectKey = "test-object";
         String content = "Hello, S3!";
         s3Utils.putObject(bucketName, objectKey, content.getBytes(), "text/plain");
         var getRes = s3Utils.getObjectAsStream(bucketName, objectKey);
         Assert.assertNotNull(getRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadPNGFile_011() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createPNGFile(10, 10, folderPath, "011");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/png");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJPGFile_012() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJPGFile(10, 10, folderPath, "012");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/jpeg");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJPEGFile_013() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJPEGFile(10, 10, folderPath, "013");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/jpeg");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadPDFFile_014() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createPDFFile(folderPath, "014");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/pdf");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadDockerFile_015() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createDockerFile(folderPath, "015");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/plain");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadYMLFile_016() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createYMLFile(folderPath, "016");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/plain");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadCSVFile_017() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createCSVFile(folderPath, "017");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/csv");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJSONFile_018() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJSONFile(folderPath, "018");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/json");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadXMLFile_019() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createXMLFile(folderPath, "019");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/xml");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadHTMLFile_020() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createHTMLFile(folderPath, "020");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/html");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJavaFile_021() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String contents = """
                 public class HelloWorld {
                     public static void main(String[] args) {
@@ -303,120 +298,100 @@ public class S3Tests {
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/plain");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadTXTFile100KB_022() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createTextFileSizeInKB(folderPath, "022", 100);
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/plain");
         Assert.assertNotNull(putRes);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadPDFFile100KB_023() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createPDFFileInKB(folderPath, "023", 100);
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/pdf");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB PDF file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadPNGFile100KB_024() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createPNGFile(410, 410, folderPath, "024");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/png");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB PNG file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJPGFile100KB_025() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJPGFile(410, 410, folderPath, "025");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/jpeg");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB JPG file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJPEGFile100KB_026() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJPEGFile(410, 410, folderPath, "026");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/jpeg");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB JPEG file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadCSVFile100KB_027() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createCSVFileInKB(folderPath, "027", 100);
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/csv");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB CSV file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJSONFile100KB_028() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJSONFileInKB(folderPath, "028", 100);
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/json");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB JSON file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadXMLFile100KB_029() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createXMLFileInKB(folderPath, "029", 100);
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/xml");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB XML file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadHTMLFile100KB_030() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createHTMLFileInKB(folderPath, "030", 100);
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/html");
         Assert.assertNotNull(putRes);
         Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "100KB HTML file upload failed");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJPEGVerifyFileType_031() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJPEGFile(10, 10, folderPath, "031");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/jpeg");
@@ -426,13 +401,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "image/jpeg", "Content-Type mismatch for JPEG file");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadPNGVerifyFileType_032() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createPNGFile(10, 10, folderPath, "032");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "image/png");
@@ -442,13 +415,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "image/png", "Content-Type mismatch for PNG file");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadPDFVerifyFileType_033() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createPDFFile(folderPath, "033");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/pdf");
@@ -458,13 +429,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "application/pdf", "Content-Type mismatch for PDF file");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadHTMLVerifyFileType_034() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createHTMLFile(folderPath, "034");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/html");
@@ -474,13 +443,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "text/html", "Content-Type mismatch for HTML file");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadJSONVerifyFileType_035() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createJSONFile(folderPath, "035");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/json");
@@ -490,13 +457,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "application/json", "Content-Type mismatch for JSON file");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadXMLVerifyFileType_036() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createXMLFile(folderPath, "036");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/xml");
@@ -508,13 +473,11 @@ public class S3Tests {
         String contentType = headRes.contentType();
         Assert.assertTrue(contentType.equals("application/xml") || contentType.equals("text/xml"),
                 "Content-Type mismatch for XML file. Expected application/xml or text/xml, got: " + contentType);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadCSVVerifyFileType_037() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createCSVFile(folderPath, "037");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/csv");
@@ -524,13 +487,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "text/csv", "Content-Type mismatch for CSV file");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadYMLVerifyFileType_038() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createYMLFile(folderPath, "038");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "application/x-yaml");
@@ -542,13 +503,11 @@ public class S3Tests {
         String contentType = headRes.contentType();
         Assert.assertTrue(contentType.equals("application/x-yaml") || contentType.equals("text/yaml"),
                 "Content-Type mismatch for YAML file. Expected application/x-yaml or text/yaml, got: " + contentType);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void UploadDockerFileVerifyFileType_039() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String fileName = FileCreator.createDockerFile(folderPath, "039");
         Path filePath = Path.of(folderPath, fileName);
         var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/plain");
@@ -558,13 +517,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), "text/plain", "Content-Type mismatch for Dockerfile");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutBucketVersioningEnable_040() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         var putVersioningRes = s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
         Assert.assertNotNull(putVersioningRes);
@@ -574,13 +531,11 @@ public class S3Tests {
         Assert.assertNotNull(getVersioningRes);
         Assert.assertEquals(getVersioningRes.status(), BucketVersioningStatus.ENABLED,
                 "Bucket versioning status mismatch");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutBucketVersioningSuspend_041() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
 
@@ -592,13 +547,11 @@ public class S3Tests {
         Assert.assertNotNull(getVersioningRes);
         Assert.assertEquals(getVersioningRes.status(), BucketVersioningStatus.SUSPENDED,
                 "Bucket versioning status mismatch");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PublicAccessBlockEnableAll_042() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         PublicAccessBlockConfiguration config = PublicAccessBlockConfiguration.builder()
                 .blockPublicAcls(true)
@@ -618,13 +571,11 @@ public class S3Tests {
         Assert.assertTrue(retrievedConfig.blockPublicPolicy(), "Block public policy not enabled");
         Assert.assertTrue(retrievedConfig.ignorePublicAcls(), "Ignore public ACLs not enabled");
         Assert.assertTrue(retrievedConfig.restrictPublicBuckets(), "Restrict public buckets not enabled");
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketPolicyDenyPublic_043() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "test-object";
         String content = "Test content for policy";
@@ -648,14 +599,11 @@ public class S3Tests {
         var putPolicyRes = s3Utils.putBucketPolicy(bucketName, policy);
         Assert.assertNotNull(putPolicyRes);
         Assert.assertTrue(putPolicyRes.sdkHttpResponse().isSuccessful(), "Put bucket policy failed");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketPolicyDenyRandomIAM_044() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "test-object";
         String content = "Test content";
@@ -697,14 +645,11 @@ public class S3Tests {
                     "Expected access denied error, got: " + e.getMessage());
             System.out.println("Policy working correctly - access denied as expected");
         }
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketACLPrivate_045() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         try {
             s3Utils.putBucketOwnershipControls(bucketName, "BucketOwnerPreferred");
@@ -725,14 +670,11 @@ public class S3Tests {
                 throw e;
             }
         }
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketCORSSimpleGET_046() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "cors-test-object";
         String content = "CORS test content";
@@ -746,8 +688,6 @@ public class S3Tests {
         var getCorsRes = s3Utils.getBucketCors(bucketName);
         Assert.assertNotNull(getCorsRes);
         Assert.assertFalse(getCorsRes.corsRules().isEmpty(), "No CORS rules found");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -774,8 +714,7 @@ public class S3Tests {
 
     @Test
     public void PutObjectWithVersioningEnabled_048() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
         String key = "v-obj";
         s3Utils.putObject(bucketName, key, "v1".getBytes(StandardCharsets.UTF_8), "text/plain");
@@ -788,8 +727,7 @@ public class S3Tests {
 
     @Test
     public void GetSpecificVersion_049() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
 
         String objectKey = "multi-version-object";
@@ -813,8 +751,7 @@ public class S3Tests {
 
     @Test
     public void DeleteMarkerCreation_050() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
 
         String objectKey = "delete-marker-test";
@@ -836,8 +773,7 @@ public class S3Tests {
 
     @Test
     public void RestorePreviousVersion_051() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
 
         String objectKey = "restore-test";
@@ -859,8 +795,7 @@ public class S3Tests {
 
     @Test
     public void CopyObjectSameBucket_052() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String sourceKey = "source-object";
         String destKey = "destination-object";
@@ -874,8 +809,6 @@ public class S3Tests {
 
         var getDestRes = s3Utils.getObjectAsStream(bucketName, destKey);
         Assert.assertNotNull(getDestRes);
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -907,8 +840,7 @@ public class S3Tests {
 
     @Test
     public void HeadObjectWithMetadata_054() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "metadata-test-object";
         String content = "Content with metadata";
@@ -925,14 +857,11 @@ public class S3Tests {
         Assert.assertEquals(headRes.metadata().get("author"), "test-user", "Author metadata mismatch");
         Assert.assertEquals(headRes.metadata().get("department"), "qa", "Department metadata mismatch");
         Assert.assertEquals(headRes.metadata().get("version"), "1.0", "Version metadata mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void MultipartUploadListParts_055() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "multipart-test-object";
         var createRes = s3Utils.createMultipartUpload(bucketName, objectKey);
@@ -951,13 +880,11 @@ public class S3Tests {
         Assert.assertEquals(listPartsRes.parts().size(), 2, "Incorrect number of parts listed");
 
         s3Utils.abortMultipartUpload(bucketName, objectKey, uploadId);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void MultipartUploadComplete_056() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "multipart-complete-test";
         var createRes = s3Utils.createMultipartUpload(bucketName, objectKey);
@@ -983,14 +910,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, objectKey);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentLength().longValue(), 10 * 1024 * 1024L, "Object size incorrect");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void MultipartUploadAbort_057() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "multipart-abort-test";
         var createRes = s3Utils.createMultipartUpload(bucketName, objectKey);
@@ -1011,14 +935,11 @@ public class S3Tests {
             Assert.assertTrue(e.getMessage().contains("NotFound") || e.getMessage().contains("404"),
                     "Expected NotFound error after abort");
         }
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutObjectTagging_058() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "tagged-object";
         String content = "Object with tags";
@@ -1041,14 +962,11 @@ public class S3Tests {
         boolean envTagFound = getTagsRes.tagSet().stream()
                 .anyMatch(tag -> "environment".equals(tag.key()) && "development".equals(tag.value()));
         Assert.assertTrue(envTagFound, "Environment tag not found");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DeleteObjectTagging_059() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "tagged-object-delete";
         String content = "Object with tags to delete";
@@ -1064,14 +982,11 @@ public class S3Tests {
         var getTagsRes = s3Utils.getObjectTagging(bucketName, objectKey);
         Assert.assertNotNull(getTagsRes);
         Assert.assertTrue(getTagsRes.tagSet().isEmpty(), "Tags still present after deletion");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutObjectMetadata_060() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "metadata-object";
         String content = "Object with custom metadata";
@@ -1093,14 +1008,11 @@ public class S3Tests {
 
         var getRes = s3Utils.getObjectAsStream(bucketName, objectKey);
         Assert.assertNotNull(getRes);
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketDefaultEncryptionAES256_061() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         var putEncryptionRes = s3Utils.putBucketEncryption(bucketName);
         Assert.assertNotNull(putEncryptionRes);
@@ -1110,14 +1022,11 @@ public class S3Tests {
         Assert.assertNotNull(getEncryptionRes);
         Assert.assertFalse(getEncryptionRes.serverSideEncryptionConfiguration().rules().isEmpty(),
                 "No encryption rules found");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DefaultEncryptionAppliedOnPUT_062() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         s3Utils.putBucketEncryption(bucketName);
 
         String objectKey = "encrypted-by-default";
@@ -1130,14 +1039,11 @@ public class S3Tests {
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.serverSideEncryption(), ServerSideEncryption.AES256,
                 "Object not encrypted with AES256");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutObjectWithSSE_S3_063() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "sse-s3-object";
         String content = "Content encrypted with SSE-S3";
@@ -1151,14 +1057,11 @@ public class S3Tests {
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.serverSideEncryption(), ServerSideEncryption.AES256,
                 "Object encryption header missing");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketCORSSetAndGet_064() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String testOrigin = "https://test-example.com";
         var putCorsRes = s3Utils.putBucketCors(bucketName, testOrigin);
@@ -1172,14 +1075,11 @@ public class S3Tests {
         boolean originFound = getCorsRes.corsRules().stream()
                 .anyMatch(rule -> rule.allowedOrigins().contains(testOrigin));
         Assert.assertTrue(originFound, "Test origin not found in CORS configuration");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketWebsiteConfigureIndex_065() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String indexDocument = "index.html";
         String errorDocument = "error.html";
@@ -1194,14 +1094,11 @@ public class S3Tests {
                 "Index document mismatch");
         Assert.assertEquals(getWebsiteRes.errorDocument().key(), errorDocument,
                 "Error document mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketTaggingPutAndGet_066() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         Map<String, String> tags = Map.of(
                 "environment", "test",
@@ -1220,14 +1117,11 @@ public class S3Tests {
         boolean envTagFound = getTagsRes.tagSet().stream()
                 .anyMatch(tag -> "environment".equals(tag.key()) && "test".equals(tag.value()));
         Assert.assertTrue(envTagFound, "Environment tag not found");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ObjectETagCheck_067() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "etag-test-object";
         String content = "Content for ETag verification";
@@ -1238,14 +1132,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, objectKey);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.eTag(), expectedETag, "ETag mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void CopyObjectWithMetadataReplace_068() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String sourceKey = "source-metadata-object";
         String destKey = "dest-metadata-object";
@@ -1272,14 +1163,11 @@ public class S3Tests {
         Assert.assertEquals(headRes.metadata().get("replaced"), "true", "Replaced metadata not found");
         Assert.assertEquals(headRes.metadata().get("version"), "2.0", "Version metadata mismatch");
         Assert.assertNull(headRes.metadata().get("original"), "Original metadata still present");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void GetObjectRange_069() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "range-test-object";
         String content = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
@@ -1294,14 +1182,11 @@ public class S3Tests {
         int total = content.getBytes(StandardCharsets.UTF_8).length;
         String expected = String.format("bytes %d-%d/%d", 10, 19, total);
         Assert.assertEquals(rangeRes.response().contentRange(), expected);
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void MultipartUploadListUploads_070() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "multipart-list-test";
         var createRes = s3Utils.createMultipartUpload(bucketName, objectKey);
@@ -1315,13 +1200,11 @@ public class S3Tests {
         Assert.assertTrue(uploadFound, "Multipart upload not found in list");
 
         s3Utils.abortMultipartUpload(bucketName, objectKey, uploadId);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketLifecyclePutAndGet_071() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String prefix = "temp/";
         int expirationDays = 30;
@@ -1337,14 +1220,11 @@ public class S3Tests {
         var rule = getLifecycleRes.rules().get(0);
         Assert.assertEquals(rule.filter().prefix(), prefix, "Prefix mismatch in lifecycle rule");
         Assert.assertEquals(rule.expiration().days().intValue(), expirationDays, "Expiration days mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketLifecycleDeleteRule_072() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         s3Utils.putBucketLifecycle(bucketName, "old/", 7);
 
@@ -1361,14 +1241,11 @@ public class S3Tests {
                     || e.getMessage().contains("404"),
                     "Expected lifecycle not found error");
         }
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketWebsiteConfigureErrorDocument_073() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String indexDocument = "index.html";
         String errorDocument = "404.html";
@@ -1381,14 +1258,11 @@ public class S3Tests {
         Assert.assertNotNull(getWebsiteRes);
         Assert.assertEquals(getWebsiteRes.indexDocument().suffix(), indexDocument, "Index document mismatch");
         Assert.assertEquals(getWebsiteRes.errorDocument().key(), errorDocument, "Error document mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketCORSGetWithSpecificOrigin_074() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String testOrigin = "https://specific-origin.example.com";
         var putCorsRes = s3Utils.putBucketCors(bucketName, testOrigin);
@@ -1403,8 +1277,6 @@ public class S3Tests {
         Assert.assertTrue(rule.allowedOrigins().contains(testOrigin),
                 "Specific origin not found in CORS configuration");
         Assert.assertTrue(rule.allowedMethods().contains("GET"), "GET method not allowed in CORS");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -1435,8 +1307,7 @@ public class S3Tests {
 
     @Test
     public void ListObjectsWithPrefix_076() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         s3Utils.putObject(bucketName, "logs/2024/january.log", "Jan logs".getBytes(), "text/plain");
         s3Utils.putObject(bucketName, "logs/2024/february.log", "Feb logs".getBytes(), "text/plain");
@@ -1450,14 +1321,11 @@ public class S3Tests {
         boolean hasJan = listRes.contents().stream().anyMatch(obj -> obj.key().equals("logs/2024/january.log"));
         boolean hasFeb = listRes.contents().stream().anyMatch(obj -> obj.key().equals("logs/2024/february.log"));
         Assert.assertTrue(hasJan && hasFeb, "Expected objects not found with prefix");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ListCommonPrefixesDelimiter_077() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         // Create folder-like structure
         s3Utils.putObject(bucketName, "a/x", "File x in a".getBytes(), "text/plain");
@@ -1472,8 +1340,6 @@ public class S3Tests {
         boolean hasA = listRes.commonPrefixes().stream().anyMatch(prefix -> prefix.prefix().equals("a/"));
         boolean hasB = listRes.commonPrefixes().stream().anyMatch(prefix -> prefix.prefix().equals("b/"));
         Assert.assertTrue(hasA && hasB, "Expected common prefixes not found");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -1505,8 +1371,7 @@ public class S3Tests {
 
     @Test
     public void ContentTypeOnPutFile_079() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String fileName = FileCreator.createTextFile(folderPath, "079");
         Path filePath = Path.of(folderPath, fileName);
@@ -1518,14 +1383,11 @@ public class S3Tests {
         var headRes = s3Utils.headObject(bucketName, fileName);
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.contentType(), customContentType, "Content-Type not set correctly");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PublicAccessAnonymousHeadDenied_080() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "private-object";
         s3Utils.putObject(bucketName, objectKey, "Private content".getBytes(), "text/plain");
@@ -1541,14 +1403,11 @@ public class S3Tests {
         var pabRes = s3Utils.getPublicAccessBlock(bucketName);
         Assert.assertTrue(pabRes.publicAccessBlockConfiguration().blockPublicAcls(),
                 "Public ACLs not blocked");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void BucketOwnershipControlsBucketOwnerEnforced_081() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         var putOwnershipRes = s3Utils.putBucketOwnershipControls(bucketName, "BucketOwnerEnforced");
         Assert.assertNotNull(putOwnershipRes);
@@ -1564,14 +1423,11 @@ public class S3Tests {
                     || e.getMessage().contains("BucketOwnerEnforced"),
                     "Expected ACL not supported error");
         }
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ObjectStorageClassStandardIA_082() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "standard-ia-object";
         String content = "Content for STANDARD_IA storage class";
@@ -1585,14 +1441,11 @@ public class S3Tests {
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.storageClass(), StorageClass.STANDARD_IA,
                 "Storage class not set to STANDARD_IA");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ConditionalGetIfMatchSuccess_083() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "conditional-test";
         String content = "Content for conditional GET";
@@ -1606,14 +1459,11 @@ public class S3Tests {
 
         String retrievedContent = new String(getRes.readAllBytes());
         Assert.assertEquals(retrievedContent, content, "Content mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ConditionalGetIfNoneMatchNotModified_084() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "conditional-none-match";
         String content = "Content for If-None-Match test";
@@ -1629,14 +1479,11 @@ public class S3Tests {
                     || e.getMessage().contains("Not Modified"),
                     "Expected 304 Not Modified response");
         }
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PresignedPutThenGetObject_085() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "presigned-test";
 
@@ -1654,14 +1501,11 @@ public class S3Tests {
 
         var headRes = s3Utils.headObject(bucketName, objectKey);
         Assert.assertNotNull(headRes);
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void PutObjectWithMetadataThenHeadMetadata_086() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "metadata-head-test";
         Map<String, String> metadata = Map.of(
@@ -1680,8 +1524,6 @@ public class S3Tests {
                 "Application metadata mismatch");
         Assert.assertEquals(headRes.metadata().get("test-id"), "086", "Test-id metadata mismatch");
         Assert.assertNotNull(headRes.metadata().get("timestamp"), "Timestamp metadata missing");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -1714,8 +1556,7 @@ public class S3Tests {
 
     @Test
     public void GetObjectRangeBytes_088() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         String objectKey = "range-bytes-test";
         String fullContent = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789abcdefghijklmnopqrstuvwxyz";
@@ -1730,14 +1571,11 @@ public class S3Tests {
         var rangeRes2 = s3Utils.getObjectRange(bucketName, objectKey, 26, 35);
         String range2 = new String(rangeRes2.readAllBytes());
         Assert.assertEquals(range2, "0123456789", "Second range mismatch");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ListObjectsWithDelimiter_089() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         // Create nested structure
         s3Utils.putObject(bucketName, "folder1/file1.txt", "File 1".getBytes(), "text/plain");
@@ -1752,14 +1590,11 @@ public class S3Tests {
         Assert.assertEquals(listRes.contents().get(0).key(), "root.txt", "Root object mismatch");
 
         Assert.assertEquals(listRes.commonPrefixes().size(), 2, "Incorrect number of common prefixes");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DefaultBucketEncryptionAES256AppliesToNewObjects_090() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
 
         var putEncryptionRes = s3Utils.putBucketEncryption(bucketName);
         Assert.assertNotNull(putEncryptionRes);
@@ -1772,8 +1607,6 @@ public class S3Tests {
         Assert.assertNotNull(headRes);
         Assert.assertEquals(headRes.serverSideEncryption(), ServerSideEncryption.AES256,
                 "Object not encrypted with default AES256");
-
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -1813,11 +1646,9 @@ public class S3Tests {
 
     @Test
     public void HeadBucket_093() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         var head = s3Utils.headBucket(bucketName);
         Assert.assertNotNull(head);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
@@ -1832,21 +1663,18 @@ public class S3Tests {
 
     @Test
     public void PutObjectToBucket_095() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String key = "tc_095.txt";
         byte[] body = "hello-095".getBytes();
         var put = s3Utils.putObject(bucketName, key, body, "text/plain");
         Assert.assertNotNull(put);
         var head = s3Utils.headObject(bucketName, key);
         Assert.assertNotNull(head);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void AddFileToBucket_096() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String key = "tc_096.bin";
         Path f = Files.createTempFile("tc_096_", ".bin");
         Files.write(f, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
@@ -1856,13 +1684,11 @@ public class S3Tests {
         var head = s3Utils.headObject(bucketName, key);
         Assert.assertNotNull(head);
         Assert.assertEquals(head.contentLength(), size);
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void ListFilesInBucket_097() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String k1 = "a/one.txt";
         String k2 = "a/two.txt";
         s3Utils.putObject(bucketName, k1, "x".getBytes(), "text/plain");
@@ -1871,25 +1697,21 @@ public class S3Tests {
         Assert.assertNotNull(list);
         Assert.assertTrue(list.contents().stream().anyMatch(o -> o.key().equals(k1)));
         Assert.assertTrue(list.contents().stream().anyMatch(o -> o.key().equals(k2)));
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DeleteObject_098() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String key = "to-delete-098.txt";
         s3Utils.putObject(bucketName, key, "z".getBytes(), "text/plain");
         var del = s3Utils.deleteObject(bucketName, key);
         Assert.assertNotNull(del);
         Assert.assertTrue(del.sdkHttpResponse().isSuccessful());
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void DeleteFile_099() throws IOException {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String key = "file-099.txt";
         Path f = Files.createTempFile("tc_099_", ".txt");
         Files.writeString(f, "file-099");
@@ -1897,25 +1719,686 @@ public class S3Tests {
         var del = s3Utils.deleteObject(bucketName, key);
         Assert.assertNotNull(del);
         Assert.assertTrue(del.sdkHttpResponse().isSuccessful());
-        s3Utils.emptyBucket(bucketName);
     }
 
     @Test
     public void GetObject_100() {
-        bucketName = s3Utils.generateRandomBucketName();
-        s3Utils.createBucket(bucketName);
+        bucketName = bucketPool.lease();
         String key = "get-100.txt";
         s3Utils.putObject(bucketName, key, "hello-100".getBytes(), "text/plain");
         var stream = s3Utils.getObjectAsStream(bucketName, key);
         Assert.assertNotNull(stream);
+    }
+
+    @Test
+    public void AsyncPutGetHeadObjects_101() {
+        S3AsyncUtilities asyncUtils = S3ClientRegistry.asyncFromConfig();
+        bucketName = s3Utils.generateRandomBucketName();
+        asyncUtils.createBucket(bucketName).join();
+        List<CompletableFuture<PutObjectResponse>> puts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            puts.add(asyncUtils.putObject(bucketName, "async-101-" + i + ".txt", ("async-" + i).getBytes(), "text/plain"));
+        }
+        CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).join();
+        var head = asyncUtils.headObject(bucketName, "async-101-7.txt").join();
+        Assert.assertEquals(head.contentLength().longValue(), "async-7".length());
+        var bytes = asyncUtils.getObjectAsBytes(bucketName, "async-101-7.txt").join();
+        Assert.assertEquals(bytes.asUtf8String(), "async-7");
+        var list = asyncUtils.listObjectsV2(bucketName).join();
+        Assert.assertEquals(list.contents().size(), 20);
         s3Utils.emptyBucket(bucketName);
     }
 
+    @Test
+    public void DeletePrefixBatched_102() {
+        bucketName = bucketPool.lease();
+        for (int i = 0; i < 15; i++) {
+            s3Utils.putObject(bucketName, "logs/" + i + ".txt", ("log-" + i).getBytes(), "text/plain");
+            s3Utils.putObject(bucketName, "data/" + i + ".txt", ("data-" + i).getBytes(), "text/plain");
+        }
+        var prefixSummary = s3Utils.deletePrefix(bucketName, "logs/", 4);
+        Assert.assertTrue(prefixSummary.isSuccessful(), "Failed deletes: " + prefixSummary.failures());
+        Assert.assertEquals(prefixSummary.deleted(), 15);
+        Assert.assertEquals(s3Utils.listObjectsWithPrefix(bucketName, "logs/").keyCount().intValue(), 0);
+        Assert.assertEquals(s3Utils.listObjectsWithPrefix(bucketName, "data/").keyCount().intValue(), 15);
+        var emptySummary = s3Utils.emptyBucket(bucketName);
+        Assert.assertEquals(emptySummary.deleted(), 15);
+    }
+
+    @Test
+    public void PutLargeFileStreamed_103() throws IOException {
+        bucketName = bucketPool.lease();
+        String fileName = FileCreator.createTextFileSizeInMB(folderPath, "103", 64);
+        Path filePath = Path.of(folderPath, fileName);
+        var putRes = s3Utils.putFileObject(bucketName, fileName, filePath, "text/plain");
+        Assert.assertTrue(putRes.sdkHttpResponse().isSuccessful(), "Streamed file upload failed");
+        var headRes = s3Utils.headObject(bucketName, fileName);
+        Assert.assertEquals(headRes.contentLength().longValue(), Files.size(filePath));
+    }
+
+    @Test
+    public void MultipartUploaderParallelParts_104() throws IOException {
+        bucketName = bucketPool.lease();
+        String fileName = FileCreator.createTextFileSizeInMB(folderPath, "104", 20);
+        Path filePath = Path.of(folderPath, fileName);
+        var uploader = new MultipartUploader(s3Utils, 4, 3);
+        var completeRes = uploader.upload(bucketName, fileName, filePath, "text/plain");
+        Assert.assertTrue(completeRes.sdkHttpResponse().isSuccessful(), "Multipart upload failed");
+        Assert.assertTrue(completeRes.eTag().endsWith("-3\""), "Unexpected part count in ETag: " + completeRes.eTag());
+        var headRes = s3Utils.headObject(bucketName, fileName);
+        Assert.assertEquals(headRes.contentLength().longValue(), Files.size(filePath));
+        Assert.assertEquals(s3Utils.listMultipartUploads(bucketName).uploads().size(), 0);
+    }
+
+    @Test
+    public void DownloadToFileParallelRanges_105() throws IOException {
+        bucketName = bucketPool.lease();
+        String fileName = FileCreator.createTextFileSizeInMB(folderPath, "105", 20);
+        Path source = Path.of(folderPath, fileName);
+        new MultipartUploader(s3Utils, 4, 3).upload(bucketName, "multipart-" + fileName, source, "text/plain");
+        s3Utils.putFileObject(bucketName, "single-" + fileName, source, "text/plain");
+
+        Path multipartCopy = Path.of(folderPath, "download-multipart-105.txt");
+        Path singleCopy = Path.of(folderPath, "download-single-105.txt");
+        s3Utils.downloadToFile(bucketName, "multipart-" + fileName, multipartCopy, 4);
+        s3Utils.downloadToFile(bucketName, "single-" + fileName, singleCopy, 4);
+        Assert.assertEquals(Files.mismatch(source, multipartCopy), -1L, "Multipart download differs from source");
+        Assert.assertEquals(Files.mismatch(source, singleCopy), -1L, "Single-part download differs from source");
+    }
+
+    @Test
+    public void CopyLargeObjectMultipartAcrossBuckets_106() throws IOException {
+        bucketName = s3Utils.generateRandomBucketName();
+        String destBucketName = s3Utils.generateRandomBucketName() + "-dest";
+        s3Utils.createBucket(bucketName);
+        s3Utils.createBucket(destBucketName);
+        String fileName = FileCreator.createTextFileSizeInMB(folderPath, "106", 130);
+        Path filePath = Path.of(folderPath, fileName);
+        new MultipartUploader(s3Utils).upload(bucketName, fileName, filePath, "text/plain");
+
+        var copyRes = s3Utils.copyLargeObject(bucketName, fileName, destBucketName, fileName, 8);
+        Assert.assertTrue(copyRes.multipart(), "Expected a multipart copy above the threshold");
+        var headRes = s3Utils.headObject(destBucketName, fileName);
+        Assert.assertEquals(headRes.contentLength().longValue(), Files.size(filePath));
+        Assert.assertEquals(headRes.contentType(), "text/plain");
+
+        var replaced = s3Utils.copyLargeObjectWithMetadata(bucketName, fileName, destBucketName, "replaced-" + fileName, Map.of("stage", "copied"), 8);
+        Assert.assertTrue(replaced.multipart());
+        Assert.assertEquals(s3Utils.headObject(destBucketName, "replaced-" + fileName).metadata().get("stage"), "copied");
+
+        s3Utils.emptyBucket(destBucketName);
+        s3Utils.deleteBucket(destBucketName);
+        s3Utils.emptyBucket(bucketName);
+    }
+
+    @Test
+    public void WaitersBucketAndObjectStates_107() {
+        bucketName = bucketPool.lease();
+        var waiters = s3Utils.waiters();
+        waiters.waitForBucketExists(bucketName);
+        String key = "waiter-107.txt";
+        s3Utils.putObject(bucketName, key, "waiter".getBytes(), "text/plain");
+        waiters.objectExistsAsync(bucketName, key, Duration.ofSeconds(10)).join();
+        s3Utils.deleteObject(bucketName, key);
+        waiters.waitForObjectNotExists(bucketName, key);
+        var shortWaiters = new S3Waiters(s3Utils, Duration.ofMillis(500));
+        Assert.assertThrows(WaiterTimeoutException.class, () -> shortWaiters.waitForObjectExists(bucketName, "never-written-107"));
+    }
+
+    @Test
+    public void StreamObjectsAcrossPages_108() {
+        S3AsyncUtilities asyncUtils = S3ClientRegistry.asyncFromConfig();
+        bucketName = bucketPool.lease();
+        List<CompletableFuture<PutObjectResponse>> puts = new ArrayList<>();
+        for (int i = 0; i < 2100; i++) {
+            puts.add(asyncUtils.putObject(bucketName, String.format("paged/%05d.txt", i), "p".getBytes(), "text/plain"));
+        }
+        CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).join();
+
+        try (var objects = s3Utils.streamObjects(bucketName, "paged/")) {
+            Assert.assertEquals(objects.count(), 2100L, "Listing stopped before the last page");
+        }
+        try (var objects = s3Utils.streamObjects(bucketName, "paged/")) {
+            var firstFive = objects.limit(5).map(o -> o.key()).toList();
+            Assert.assertEquals(firstFive.get(4), "paged/00004.txt");
+        }
+    }
+
+    @Test
+    public void ParallelListerShardedSortedMerge_109() {
+        S3AsyncUtilities asyncUtils = S3ClientRegistry.asyncFromConfig();
+        bucketName = bucketPool.lease();
+        List<CompletableFuture<PutObjectResponse>> puts = new ArrayList<>();
+        for (String dir : List.of("alpha/", "beta/", "gamma/deep/", "Zeta/", "")) {
+            for (int i = 0; i < 300; i++) {
+                puts.add(asyncUtils.putObject(bucketName, dir + "obj-" + i, "x".getBytes(), "text/plain"));
+            }
+        }
+        CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).join();
+
+        List<String> expected;
+        try (var objects = s3Utils.streamObjects(bucketName, null)) {
+            expected = objects.map(o -> o.key()).toList();
+        }
+        var lister = new ParallelLister(s3Utils, 6);
+        try (var objects = lister.listByDelimiter(bucketName, "", "/")) {
+            Assert.assertEquals(objects.map(o -> o.key()).toList(), expected);
+        }
+        try (var objects = lister.listByAlphabet(bucketName, "", "Zabgo")) {
+            Assert.assertEquals(objects.map(o -> o.key()).toList(), expected);
+        }
+    }
+
+    @Test
+    public void ObjectCacheRevalidation_110() throws IOException {
+        bucketName = bucketPool.lease();
+        s3Utils.putObject(bucketName, "small.txt", "first".getBytes(StandardCharsets.UTF_8), "text/plain");
+        s3Utils.putObject(bucketName, "large.bin", new byte[64 * 1024], "application/octet-stream");
+
+        Path cacheDir = Files.createTempDirectory("s3-cache");
+        S3ObjectCache cache = new S3ObjectCache(s3Utils, 1024 * 1024, 16 * 1024, cacheDir, 10 * 1024 * 1024, Duration.ZERO);
+        try (var in = cache.get(bucketName, "small.txt")) {
+            Assert.assertEquals(new String(in.readAllBytes(), StandardCharsets.UTF_8), "first");
+        }
+        try (var in = cache.get(bucketName, "large.bin")) {
+            Assert.assertEquals(in.readAllBytes().length, 64 * 1024);
+        }
+        try (var in = cache.get(bucketName, "small.txt")) {
+            Assert.assertEquals(new String(in.readAllBytes(), StandardCharsets.UTF_8), "first");
+        }
+        Assert.assertEquals(cache.stats().revalidations(), 1);
+        Assert.assertEquals(cache.stats().diskBytes(), 64 * 1024);
+
+        s3Utils.putObject(bucketName, "small.txt", "second".getBytes(StandardCharsets.UTF_8), "text/plain");
+        try (var in = cache.get(bucketName, "small.txt")) {
+            Assert.assertEquals(new String(in.readAllBytes(), StandardCharsets.UTF_8), "second");
+        }
+        Assert.assertEquals(cache.stats().misses(), 3);
+
+        // a changed object above the memory threshold replaces its disk entry without losing the new file
+        byte[] changed = FileCreator.createTextContent("110", 64 * 1024);
+        s3Utils.putObject(bucketName, "large.bin", changed, "application/octet-stream");
+        try (var in = cache.get(bucketName, "large.bin")) {
+            Assert.assertEquals(in.readAllBytes(), changed);
+        }
+        try (var in = cache.get(bucketName, "large.bin")) {
+            Assert.assertEquals(in.readAllBytes(), changed);
+        }
+        Assert.assertEquals(cache.stats().diskBytes(), 64 * 1024);
+        try (var files = Files.list(cacheDir)) {
+            Assert.assertEquals(files.filter(p -> p.toString().endsWith(".obj")).count(), 1L);
+        }
+        cache.clear();
+
+        // an object larger than the whole disk tier is streamed through and its file removed on close
+        Path smallDir = Files.createTempDirectory("s3-cache");
+        S3ObjectCache small = new S3ObjectCache(s3Utils, 1024 * 1024, 16 * 1024, smallDir, 32 * 1024, Duration.ZERO);
+        for (int i = 0; i < 2; i++) {
+            try (var in = small.get(bucketName, "large.bin")) {
+                Assert.assertEquals(in.readAllBytes(), changed);
+            }
+        }
+        Assert.assertEquals(small.stats().diskBytes(), 0);
+        try (var files = Files.list(smallDir)) {
+            Assert.assertEquals(files.filter(p -> p.toString().endsWith(".obj")).count(), 0L);
+        }
+    }
+
+    @Test
+    public void HeadCacheSingleFlightAndInvalidation_111() {
+        bucketName = bucketPool.lease();
+        S3Utilities cachedUtils = S3ClientRegistry.newClient(utils -> utils.setHeadCacheTtl(Duration.ofMinutes(1)));
+        try {
+            cachedUtils.putObject(bucketName, "head.txt", "first".getBytes(StandardCharsets.UTF_8), "text/plain");
+
+            List<CompletableFuture<HeadObjectResponse>> heads = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                heads.add(CompletableFuture.supplyAsync(() -> cachedUtils.headObject(bucketName, "head.txt")));
+            }
+            HeadObjectResponse first = heads.get(0).join();
+            heads.forEach(h -> Assert.assertSame(h.join(), first));
+            Assert.assertSame(cachedUtils.headObject(bucketName, "head.txt"), first);
+            Assert.assertEquals(first.contentLength(), Long.valueOf(5));
+
+            cachedUtils.putObject(bucketName, "head.txt", "second!".getBytes(StandardCharsets.UTF_8), "text/plain");
+            HeadObjectResponse second = cachedUtils.headObject(bucketName, "head.txt");
+            Assert.assertEquals(second.contentLength(), Long.valueOf(7));
+            Assert.assertNotEquals(second.eTag(), first.eTag());
+
+            cachedUtils.deleteObject(bucketName, "head.txt");
+            try {
+                cachedUtils.headObject(bucketName, "head.txt");
+                Assert.fail("Deleted object should not be served from the head cache");
+            } catch (Exception e) {
+                Assert.assertTrue(e.getMessage().contains("404"), "Expected 404, got: " + e.getMessage());
+            }
+        } finally {
+            cachedUtils.close();
+        }
+    }
+
+    @Test
+    public void PresignedUrlCacheAndBulkPresign_112() {
+        bucketName = bucketPool.lease();
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            keys.add("links/object-" + i);
+        }
+        Map<String, String> getUrls = s3Utils.generatePresignedGetUrls(bucketName, keys, Duration.ofMinutes(30));
+        Assert.assertEquals(new ArrayList<>(getUrls.keySet()), keys);
+        for (String key : keys) {
+            Assert.assertTrue(getUrls.get(key).contains(key), "Object key not in presigned URL");
+            Assert.assertEquals(s3Utils.generatePresignedGetUrl(bucketName, key, Duration.ofMinutes(30)), getUrls.get(key));
+        }
+
+        Map<String, String> putUrls = s3Utils.generatePresignedPutUrls(bucketName, keys, Duration.ofMinutes(30));
+        Assert.assertEquals(putUrls.size(), keys.size());
+        Assert.assertNotEquals(putUrls.get(keys.get(0)), getUrls.get(keys.get(0)));
+        Assert.assertNotEquals(s3Utils.generatePresignedGetUrl(bucketName, keys.get(0), Duration.ofMinutes(5)), getUrls.get(keys.get(0)));
+    }
+
+    @Test
+    public void MetricsHistogramsAndPrometheusDump_113() throws IOException {
+        bucketName = bucketPool.lease();
+        S3Utilities metered = S3ClientRegistry.newClient();
+        try {
+            byte[] payload = new byte[10 * 1024];
+            for (int i = 0; i < 20; i++) {
+                metered.putObject(bucketName, "metrics/object-" + i, payload, "application/octet-stream");
+            }
+            for (int i = 0; i < 20; i++) {
+                try (var in = metered.getObjectAsStream(bucketName, "metrics/object-" + i)) {
+                    in.readAllBytes();
+                }
+            }
+            Assert.assertThrows(NoSuchKeyException.class, () -> metered.getObjectAsStream(bucketName, "metrics/missing").close());
+
+            var stats = metered.metrics().snapshot();
+            var put = stats.get("PutObject");
+            Assert.assertEquals(put.calls(), 20);
+            Assert.assertEquals(put.bytesSent(), 20L * payload.length);
+            Assert.assertTrue(put.p50Micros() > 0 && put.p50Micros() <= put.p99Micros() && put.p99Micros() <= put.maxMicros());
+            var get = stats.get("GetObject");
+            Assert.assertEquals(get.calls(), 21);
+            Assert.assertEquals(get.bytesReceived(), 20L * payload.length);
+            Assert.assertEquals(get.errors(), 1);
+            Assert.assertEquals(get.errorCodes().get("NoSuchKey"), Long.valueOf(1));
+
+            // a HEAD's Content-Length is the object size, but no body comes back
+            metered.headObjectUncached(bucketName, "metrics/object-0");
+            Assert.assertEquals(metered.metrics().snapshot().get("HeadObject").bytesReceived(), 0);
+
+            Path dump = Path.of(folderPath, "s3-metrics-113.prom");
+            metered.metrics().writePrometheus(dump);
+            String text = Files.readString(dump);
+            Assert.assertTrue(text.contains("s3_client_request_duration_seconds_count{operation=\"PutObject\"} 20"), text);
+            Assert.assertTrue(text.contains("s3_client_error_codes_total{operation=\"GetObject\",code=\"NoSuchKey\"} 1"), text);
+
+            var server = metered.metrics().serve(0);
+            try (var in = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics").toURL().openStream()) {
+                Assert.assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("operation=\"GetObject\""));
+            } finally {
+                server.stop(0);
+            }
+        } finally {
+            metered.close();
+        }
+    }
+
+    @Test
+    public void AdaptiveConcurrencyLimiterPerPrefix_114() {
+        bucketName = bucketPool.lease();
+        List<CompletableFuture<PutObjectResponse>> puts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String key = (i % 2 == 0 ? "even/" : "odd/") + "object-" + i;
+            puts.add(CompletableFuture.supplyAsync(() -> s3Utils.putObject(bucketName, key, "x".getBytes(), "text/plain")));
+        }
+        puts.forEach(p -> Assert.assertTrue(p.join().sdkHttpResponse().isSuccessful()));
+
+        var limits = AdaptiveConcurrencyLimiter.shared().snapshot();
+        for (String scope : List.of(bucketName + "/even/", bucketName + "/odd/")) {
+            Assert.assertTrue(limits.containsKey(scope), "No limit tracked for " + scope);
+            Assert.assertEquals(limits.get(scope).inFlight(), 0);
+            Assert.assertTrue(limits.get(scope).limit() >= 1);
+        }
+        Assert.assertTrue(s3Utils.metrics().toPrometheus().contains("s3_client_concurrency_limit{scope=\"" + bucketName + "/even/\"}"));
+    }
+
+    @Test
+    public void UploadAndDownloadChecksums_115() throws IOException {
+        bucketName = bucketPool.lease();
+        byte[] content = "checksummed content 115".getBytes(StandardCharsets.UTF_8);
+        s3Utils.putObject(bucketName, "crc32c.txt", content, "text/plain");
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        String expectedCrc = Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+        try (var in = s3Utils.getObjectAsStream(bucketName, "crc32c.txt")) {
+            Assert.assertEquals(in.readAllBytes(), content);
+            Assert.assertEquals(in.response().checksumCRC32C(), expectedCrc);
+        }
+
+        String fileName = FileCreator.createTextFileSizeInMB(folderPath, "115", 12);
+        Path filePath = Path.of(folderPath, fileName);
+        new MultipartUploader(s3Utils, 4, 3).upload(bucketName, "multipart-" + fileName, filePath, "text/plain");
+        try (var in = s3Utils.getObjectAsStream(bucketName, "multipart-" + fileName)) {
+            Assert.assertTrue(in.response().checksumCRC32C().endsWith("-2"), "Expected composite checksum: " + in.response().checksumCRC32C());
+            Assert.assertEquals(in.readAllBytes().length, Files.size(filePath));
+        }
+
+        S3Utilities sha256Utils = S3ClientRegistry.newClient(utils -> utils.setChecksumAlgorithm(ChecksumAlgorithm.SHA256));
+        try {
+            sha256Utils.putFileObject(bucketName, "sha256-" + fileName, filePath, "text/plain");
+            try (var in = sha256Utils.getObjectAsStream(bucketName, "sha256-" + fileName)) {
+                Assert.assertNotNull(in.response().checksumSHA256());
+                Assert.assertEquals(in.readAllBytes().length, Files.size(filePath));
+            }
+        } finally {
+            sha256Utils.close();
+        }
+    }
+
+    @Test
+    public void CompressedUploadTransparentDownload_116() throws IOException {
+        bucketName = bucketPool.lease();
+        S3Utilities compressing = S3ClientRegistry.newClient(utils -> utils.setCompression(true));
+        try {
+            String csvName = FileCreator.createCSVFileInKB(folderPath, "116", 512);
+            Path csvPath = Path.of(folderPath, csvName);
+            compressing.putFileObject(bucketName, csvName, csvPath, "text/csv");
+            var csvHead = compressing.headObject(bucketName, csvName);
+            Assert.assertEquals(csvHead.contentEncoding(), "gzip");
+            Assert.assertEquals(csvHead.metadata().get("uncompressed-length"), String.valueOf(Files.size(csvPath)));
+            Assert.assertTrue(csvHead.contentLength() < Files.size(csvPath), "CSV was not compressed");
+            try (var in = compressing.getObjectAsStream(bucketName, csvName)) {
+                Assert.assertEquals(in.readAllBytes(), Files.readAllBytes(csvPath));
+            }
+
+            byte[] json = "{\"level\":\"info\",\"message\":\"repeated log line\"}\n".repeat(500).getBytes(StandardCharsets.UTF_8);
+            compressing.putObject(bucketName, "log.json", json, "application/json");
+            try (var in = s3Utils.getObjectAsStream(bucketName, "log.json")) {
+                Assert.assertEquals(in.readAllBytes(), json);
+            }
+
+            String pngName = FileCreator.createPNGFile(50, 50, folderPath, "116");
+            Path pngPath = Path.of(folderPath, pngName);
+            compressing.putFileObject(bucketName, pngName, pngPath, "image/png");
+            var pngHead = compressing.headObject(bucketName, pngName);
+            Assert.assertNull(pngHead.contentEncoding());
+            Assert.assertEquals(pngHead.contentLength().longValue(), Files.size(pngPath));
+        } finally {
+            compressing.close();
+        }
+    }
+
+    @Test
+    public void SyncDirectoryUpAndDownIncrementally_117() throws IOException {
+        bucketName = bucketPool.lease();
+        var matrix = FileCreator.createFolderWithXSubLevelFolders(folderPath, 5, 3, 4, "117");
+        Path localDir = Path.of(folderPath, matrix.folderName());
+        int totalFiles = 5 + 3 * 4;
+
+        var first = s3Utils.syncUp(localDir, bucketName, "sync");
+        Assert.assertTrue(first.isSuccessful(), "Failures: " + first.failures());
+        Assert.assertEquals(first.transferred(), totalFiles);
+
+        Path changed = localDir.resolve(matrix.mainFiles()[0]);
+        Files.writeString(changed, "changed content 117");
+        var second = s3Utils.syncUp(localDir, bucketName, "sync/");
+        Assert.assertEquals(second.transferred(), 1);
+        Assert.assertEquals(second.skipped(), totalFiles - 1);
+
+        Path downloadDir = Path.of(folderPath, matrix.folderName() + "_download");
+        var down = s3Utils.syncDown(bucketName, "sync", downloadDir);
+        Assert.assertTrue(down.isSuccessful(), "Failures: " + down.failures());
+        Assert.assertEquals(down.transferred(), totalFiles);
+        Assert.assertEquals(Files.readString(downloadDir.resolve(matrix.mainFiles()[0])), "changed content 117");
+        String subFile = matrix.subFolders()[2] + "/" + matrix.subFoldersAndFiles()[2][3];
+        Assert.assertEquals(Files.mismatch(localDir.resolve(subFile), downloadDir.resolve(subFile)), -1L);
+
+        var again = s3Utils.syncDown(bucketName, "sync", downloadDir);
+        Assert.assertEquals(again.transferred(), 0);
+        Assert.assertEquals(again.skipped(), totalFiles);
+    }
+
+    @Test
+    public void BucketPoolLeaseResetRecycle_118() {
+        try (BucketPool pool = new BucketPool(s3Utils, 1)) {
+            String bucket = pool.lease();
+            s3Utils.putBucketCors(bucket, "https://example.com");
+            s3Utils.putBucketTagging(bucket, Map.of("suite", "118"));
+            s3Utils.putObject(bucket, "leftover-118.txt", "left".getBytes(), "text/plain");
+            s3Utils.createMultipartUpload(bucket, "unfinished-118.bin");
+            pool.release(bucket);
+            Assert.assertFalse(pool.isLeased(bucket));
+
+            s3Utils.waiters().waitFor("pooled bucket to be reset", () -> pool.stats().idle() > 0);
+            String reused = pool.lease();
+            Assert.assertEquals(reused, bucket, "Reset bucket should be reused");
+            Assert.assertEquals(pool.stats().reused(), 1);
+            Assert.assertEquals(s3Utils.listObjectsV2(reused).keyCount().intValue(), 0);
+            Assert.assertTrue(s3Utils.listMultipartUploads(reused).uploads().isEmpty());
+            Assert.assertThrows(Exception.class, () -> s3Utils.getBucketCors(reused));
+            Assert.assertThrows(Exception.class, () -> s3Utils.getBucketTagging(reused));
+
+            s3Utils.putBucketVersioning(reused, BucketVersioningStatus.ENABLED);
+            pool.release(reused);
+            s3Utils.waiters().waitFor("versioned bucket to be retired", () -> pool.stats().retired() > 0);
+            Assert.assertEquals(pool.stats().retired(), 1, "Versioned bucket should be retired");
+            Assert.assertNotEquals(pool.lease(), bucket);
+        }
+    }
+
+    @Test
+    public void ClientWarmUpOpensPooledConnections_119() throws IOException {
+        bucketName = bucketPool.lease();
+        S3Utilities fresh = S3ClientRegistry.newClient();
+        try {
+            var result = fresh.warmUp(bucketName, 8);
+            Assert.assertTrue(result.isSuccessful(), "Warm-up calls failed: " + result.failed());
+            Assert.assertEquals(result.connections(), 8);
+            Assert.assertTrue(result.elapsed().toNanos() > 0);
+            Assert.assertTrue(fresh.metrics().snapshot().get("HeadBucket").calls() >= 9,
+                    "Warm-up should issue one serial and eight parallel calls");
+
+            var put = fresh.putObject(bucketName, "after-warm-up-119.txt", "warm".getBytes(), "text/plain");
+            Assert.assertTrue(put.sdkHttpResponse().isSuccessful());
+        } finally {
+            fresh.close();
+        }
+
+        // the local server sees each client socket, so it can tell a reused connection from a new one
+        try (LocalS3Server server = new LocalS3Server()) {
+            S3Utilities local = new S3Utilities(Region.US_EAST_1, "local", "local", server.endpoint(), 16);
+            try {
+                String bucket = local.generateRandomBucketName();
+                local.createBucket(bucket);
+                Assert.assertTrue(local.warmUp(bucket, 8).isSuccessful());
+                int warmed = server.connectionCount();
+                Assert.assertTrue(warmed >= 1 && warmed <= 8, "Warm-up opened " + warmed + " connections");
+
+                for (int i = 0; i < 5; i++) {
+                    local.putObject(bucket, "after-warm-up-" + i + ".txt", "warm".getBytes(), "text/plain");
+                }
+                Assert.assertEquals(server.connectionCount(), warmed, "Calls after warm-up should reuse pooled connections");
+            } finally {
+                local.close();
+            }
+        }
+    }
+
+    @Test
+    public void PurgeVersionsPipelinedWithFilters_120() {
+        bucketName = bucketPool.lease();
+        s3Utils.putBucketVersioning(bucketName, BucketVersioningStatus.ENABLED);
+        for (int i = 0; i < 20; i++) {
+            for (int v = 0; v < 3; v++) {
+                s3Utils.putObject(bucketName, "old/key-" + i + ".txt", ("v" + v).getBytes(), "text/plain");
+            }
+            s3Utils.putObject(bucketName, "keep/key-" + i + ".txt", "keep".getBytes(), "text/plain");
+        }
+        s3Utils.deleteObject(bucketName, "old/key-0.txt");
+
+        var recentOnly = s3Utils.purgeVersions(bucketName, "old/", Duration.ofHours(1), null);
+        Assert.assertEquals(recentOnly.deleted(), 0, "Versions newer than the age filter must be kept");
+
+        List<PurgeProgress> reports = new CopyOnWriteArrayList<>();
+        var summary = s3Utils.purgeVersions(bucketName, "old/", null, reports::add);
+        Assert.assertTrue(summary.isSuccessful(), "Failures: " + summary.failures());
+        Assert.assertEquals(summary.deleted(), 61, "60 versions plus one delete marker");
+        PurgeProgress last = reports.get(reports.size() - 1);
+        Assert.assertTrue(last.done());
+        Assert.assertEquals(last.listed(), 61);
+        Assert.assertTrue(last.deletesPerSecond() > 0);
+
+        var remaining = s3Utils.listObjectVersions(bucketName, "old/");
+        Assert.assertTrue(remaining.versions().isEmpty() && remaining.deleteMarkers().isEmpty());
+        Assert.assertEquals(s3Utils.listObjectVersions(bucketName, "keep/").versions().size(), 20);
+
+        var deleteRes = s3Utils.emptyBucketAllVersionsAndDelete(bucketName);
+        Assert.assertTrue(deleteRes.sdkHttpResponse().isSuccessful());
+    }
+
+    @Test
+    public void SeedBucketWithLayoutAndResume_121() {
+        S3AsyncUtilities asyncUtils = S3ClientRegistry.asyncFromConfig();
+        bucketName = bucketPool.lease();
+        var layout = new BucketSeeder.Layout("seed", 2, 4, true);
+        var sizes = new BucketSeeder.SizeDistribution(64, 4096, true);
+        Path checkpoint = Path.of(folderPath, "seed-121.properties");
+        BucketSeeder seeder = new BucketSeeder(asyncUtils, 32);
+
+        var first = seeder.seed(bucketName, 2_000, layout, sizes, checkpoint, null);
+        Assert.assertTrue(first.isSuccessful(), "Failed puts: " + first.failed());
+        Assert.assertEquals(first.seeded(), 2_000);
+        Assert.assertTrue(first.objectsPerSecond() > 0);
+        try (var objects = s3Utils.streamObjects(bucketName, "seed/")) {
+            Assert.assertEquals(objects.count(), 2_000L);
+        }
+        var head = s3Utils.headObject(bucketName, layout.keyFor(1_234));
+        Assert.assertEquals(head.contentLength().intValue(), sizes.sizeFor(1_234));
+
+        var resumed = seeder.seed(bucketName, 2_000, layout, sizes, checkpoint, null);
+        Assert.assertEquals(resumed.resumedFrom(), 2_000);
+        Assert.assertEquals(resumed.seeded(), 0);
+    }
+
+    @Test
+    public void LocalServerPathStyleAndFaultInjection_122() throws IOException {
+        try (LocalS3Server server = new LocalS3Server()) {
+            S3Utilities local = new S3Utilities(Region.US_EAST_1, "local", "local", server.endpoint(), 16);
+            try {
+                String bucket = local.generateRandomBucketName();
+                local.createBucket(bucket);
+                byte[] body = FileCreator.createTextContent("122", 256 * 1024);
+                local.putObject(bucket, "dir/object.txt", body, "text/plain");
+                try (var range = local.getObjectRange(bucket, "dir/object.txt", 10, 19)) {
+                    Assert.assertEquals(range.readAllBytes(), Arrays.copyOfRange(body, 10, 20));
+                }
+                String etag = local.headObject(bucket, "dir/object.txt").eTag();
+                Assert.assertThrows(Exception.class, () -> local.getObjectWithIfNoneMatch(bucket, "dir/object.txt", etag).close());
+                Assert.assertEquals(local.listObjectsWithDelimiter(bucket, "", "/").commonPrefixes().get(0).prefix(), "dir/");
+                local.putObject(bucket, "a-before.txt", "a".getBytes(), "text/plain");
+                local.putObject(bucket, "z-after.txt", "z".getBytes(), "text/plain");
+                var dir = local.listObjectsWithPrefix(bucket, "dir/");
+                Assert.assertEquals(dir.keyCount().intValue(), 1);
+                Assert.assertFalse(dir.isTruncated());
+
+                local.copyObjectIfMatch(bucket, "dir/object.txt", bucket, "copies/object.txt", etag);
+                S3Exception stale = Assert.expectThrows(S3Exception.class,
+                        () -> local.copyObjectIfMatch(bucket, "dir/object.txt", bucket, "copies/stale.txt", "\"0000\""));
+                Assert.assertEquals(stale.statusCode(), 412);
+
+                local.putBucketVersioning(bucket, BucketVersioningStatus.ENABLED);
+                local.putObject(bucket, "dir/object.txt", "v2".getBytes(), "text/plain");
+                local.putObjectTagging(bucket, "dir/object.txt", Map.of("stage", "122"));
+                Assert.assertEquals(local.getObjectTagging(bucket, "dir/object.txt").tagSet().get(0).value(), "122");
+                Assert.assertEquals(local.listObjectVersions(bucket, "dir/").versions().size(), 2);
+
+                server.setThrottling(0.1, 0);
+                for (int i = 0; i < 50; i++) {
+                    local.putObject(bucket, "throttled/" + i, "t".getBytes(), "text/plain");
+                }
+                server.setThrottling(0, 0);
+                Assert.assertTrue(server.throttledCount() > 0, "Some requests should have been throttled");
+                Assert.assertEquals(local.listObjectsWithPrefix(bucket, "throttled/").keyCount().intValue(), 50);
+
+                server.setBandwidth(1024 * 1024);
+                long start = System.nanoTime();
+                try (var in = local.getObjectVersionAsStream(bucket, "dir/object.txt",
+                        local.listObjectVersions(bucket, "dir/").versions().get(1).versionId())) {
+                    Assert.assertEquals(in.readAllBytes().length, body.length);
+                }
+                Assert.assertTrue(System.nanoTime() - start >= 200_000_000L, "Bandwidth cap should slow the download");
+                server.setBandwidth(0);
+
+                local.emptyBucketAllVersionsAndDelete(bucket);
+            } finally {
+                local.close();
+            }
+        }
+    }
+
+    @Test
+    public void OpenLoopLoadGeneratorReportsCorrectedLatency_123() throws IOException {
+        Properties workload = new Properties();
+        workload.setProperty("workload.put", "20");
+        workload.setProperty("workload.get", "50");
+        workload.setProperty("workload.head", "15");
+        workload.setProperty("workload.list", "5");
+        workload.setProperty("workload.delete", "10");
+        workload.setProperty("workload.sizeMinBytes", "512");
+        workload.setProperty("workload.sizeMaxBytes", "16384");
+        workload.setProperty("workload.sizeLogUniform", "true");
+        workload.setProperty("workload.keys", "200");
+        workload.setProperty("workload.zipfExponent", "1.1");
+        workload.setProperty("workload.rps", "200");
+        workload.setProperty("workload.durationSeconds", "3");
+        WorkloadSpec spec = WorkloadSpec.fromProperties(workload);
+
+        try (LocalS3Server server = new LocalS3Server()) {
+            S3Utilities local = new S3Utilities(Region.US_EAST_1, "local", "local", server.endpoint(), 64);
+            try {
+                String bucket = local.generateRandomBucketName();
+                local.createBucket(bucket);
+                LoadGenerator generator = new LoadGenerator(local);
+
+                LoadReport report = generator.run(bucket, spec);
+                Assert.assertTrue(report.isSuccessful(), report.format());
+                Assert.assertEquals(report.scheduled(), spec.plannedRequests(), spec.plannedRequests() * 0.15);
+                Assert.assertEquals(report.completed(), report.scheduled());
+                for (WorkloadSpec.Operation op : WorkloadSpec.Operation.values()) {
+                    LoadReport.OperationReport stats = report.operations().get(op);
+                    Assert.assertTrue(stats.calls() > 0, "No " + op + " calls");
+                    Assert.assertTrue(stats.p50Micros() <= stats.p99Micros() && stats.p99Micros() <= stats.maxMicros());
+                }
+
+                // latency is counted from the scheduled start, so it can never be below the server's delay
+                server.setLatency(Duration.ofMillis(50), Duration.ZERO);
+                workload.setProperty("workload.preload", "false");
+                workload.setProperty("workload.durationSeconds", "1");
+                LoadReport slow = generator.run(bucket, WorkloadSpec.fromProperties(workload));
+                server.setLatency(Duration.ZERO, Duration.ZERO);
+                Assert.assertTrue(slow.operations().get(WorkloadSpec.Operation.GET).p50Micros() >= 50_000, slow.format());
+                Assert.assertEquals(slow.dropped(), 0);
+
+                local.emptyBucket(bucket);
+                local.deleteBucket(bucket);
+            } finally {
+                local.close();
+            }
+        }
+    }
+
     @AfterMethod(alwaysRun = true)
     public void cleanupTest() {
         if (s3Utils != null && bucketName != null) {
             try {
-                s3Utils.deleteBucket(bucketName);
+                if (bucketPool != null && bucketPool.isLeased(bucketName)) {
+                    bucketPool.release(bucketName);
+                } else {
+                    s3Utils.deleteBucket(bucketName);
+                }
             } catch (Exception e) {
                 System.err.println("Error cleaning up S3 bucket: " + e.getMessage());
             }
@@ -1924,6 +2407,9 @@ public class S3Tests {
 
     @AfterClass(alwaysRun = true)
     public void cleanupClass() {
+        if (bucketPool != null) {
+            bucketPool.close();
+        }
         try {
             Files.walk(Path.of(folderPath))
                     .sorted(Comparator.reverseOrder())
@@ -1933,4 +2419,9 @@ public class S3Tests {
             System.err.println("Error cleaning up test resources: " + e.getMessage());
         }
     }
+
+    @AfterSuite(alwaysRun = true)
+    public void cleanupSuite() {
+        S3ClientRegistry.closeAll();
+    }
 }
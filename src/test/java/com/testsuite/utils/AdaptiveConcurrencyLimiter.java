@@ -0,0 +1,265 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+// AIMD concurrency limit per bucket and key prefix, shared by every S3Utilities in the JVM. Each call
+// takes a permit for its bucket/prefix before it is sent and blocks while the prefix is at its limit.
+// A throttled attempt (503 SlowDown, 429, or a throttling error) multiplies the limit by BACKOFF_RATIO,
+// at most once per window of requests. Successful calls add 1/limit, which is roughly +1 per round trip,
+// unless their latency is well above the prefix's running average. Scopes with no calls for idleTimeout
+// are dropped, so short-lived test buckets do not accumulate; a dropped scope restarts at initialLimit.
+public final class AdaptiveConcurrencyLimiter implements ExecutionInterceptor {
+    public static final double BACKOFF_RATIO = 0.7;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+    private static final double LATENCY_TOLERANCE = 3.0;
+    private static final double LATENCY_SMOOTHING = 0.05;
+    private static final ExecutionAttribute<Permit> PERMIT = new ExecutionAttribute<>("AdaptiveConcurrencyPermit");
+    private static final AdaptiveConcurrencyLimiter SHARED = new AdaptiveConcurrencyLimiter(
+            Config.getInt("s3AdaptiveInitialLimit", 64),
+            Config.getInt("s3AdaptiveMinLimit", 1),
+            Config.getInt("s3AdaptiveMaxLimit", 1024),
+            Config.getInt("s3AdaptivePrefixDepth", 1),
+            Duration.ofMillis(Config.getInt("s3AdaptiveIdleScopeMs", (int) DEFAULT_IDLE_TIMEOUT.toMillis())));
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int prefixDepth;
+    private final long idleTimeoutNanos;
+    private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int prefixDepth) {
+        this(initialLimit, minLimit, maxLimit, prefixDepth, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int prefixDepth, Duration idleTimeout) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.initialLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.prefixDepth = Math.max(0, prefixDepth);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    public static AdaptiveConcurrencyLimiter shared() {
+        return SHARED;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        String scope = scopeOf(context.request());
+        if (scope == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long sweepAt = nextSweep.get();
+        if (now - sweepAt >= 0 && nextSweep.compareAndSet(sweepAt, now + Math.max(idleTimeoutNanos, 1_000_000_000L))) {
+            evictIdle(now - idleTimeoutNanos);
+        }
+        Permit permit;
+        do {
+            // null when the scope was evicted between the lookup and the acquire
+            permit = limits.computeIfAbsent(scope, s -> new Limit(initialLimit)).acquire();
+        } while (permit == null);
+        executionAttributes.putAttribute(PERMIT, permit);
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        int status = context.httpResponse().statusCode();
+        Permit permit = executionAttributes.getAttribute(PERMIT);
+        if (permit != null && (status == 503 || status == 429)) {
+            permit.limit().throttled(permit);
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        Permit permit = executionAttributes.getAttribute(PERMIT);
+        if (permit != null) {
+            permit.limit().release(permit, true);
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Permit permit = executionAttributes.getAttribute(PERMIT);
+        if (permit == null) {
+            return;
+        }
+        if (context.exception() instanceof AwsServiceException ase && ase.isThrottlingException()) {
+            permit.limit().throttled(permit);
+        }
+        permit.limit().release(permit, false);
+    }
+
+    // drops scopes without calls in flight or waiting whose last call finished before cutoffNanos
+    void evictIdle(long cutoffNanos) {
+        limits.entrySet().removeIf(e -> e.getValue().retireIfIdle(cutoffNanos));
+    }
+
+    public Map<String, LimitStats> snapshot() {
+        Map<String, LimitStats> result = new TreeMap<>();
+        limits.forEach((scope, limit) -> result.put(scope, limit.stats()));
+        return result;
+    }
+
+    public String toPrometheus() {
+        Map<String, LimitStats> stats = snapshot();
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP s3_client_concurrency_limit Adaptive concurrency limit per bucket prefix\n");
+        out.append("# TYPE s3_client_concurrency_limit gauge\n");
+        stats.forEach((scope, s) -> out.append("s3_client_concurrency_limit{scope=\"").append(scope.replace("\"", ""))
+                .append("\"} ").append(String.format(Locale.ROOT, "%.2f", s.limit())).append('\n'));
+        out.append("# HELP s3_client_concurrency_in_flight Calls holding a permit per bucket prefix\n");
+        out.append("# TYPE s3_client_concurrency_in_flight gauge\n");
+        stats.forEach((scope, s) -> out.append("s3_client_concurrency_in_flight{scope=\"").append(scope.replace("\"", ""))
+                .append("\"} ").append(s.inFlight()).append('\n'));
+        out.append("# HELP s3_client_throttle_backoffs_total Limit decreases caused by throttling\n");
+        out.append("# TYPE s3_client_throttle_backoffs_total counter\n");
+        stats.forEach((scope, s) -> out.append("s3_client_throttle_backoffs_total{scope=\"").append(scope.replace("\"", ""))
+                .append("\"} ").append(s.backoffs()).append('\n'));
+        return out.toString();
+    }
+
+    // bucket plus the first prefixDepth '/'-separated segments of the key; bucket-level calls use the bucket alone
+    String scopeOf(SdkRequest request) {
+        String bucket = request.getValueForField("Bucket", String.class).orElse(null);
+        if (bucket == null) {
+            return null;
+        }
+        String key = request.getValueForField("Key", String.class).orElse(null);
+        if (key == null || prefixDepth == 0) {
+            return bucket + "/";
+        }
+        int end = -1;
+        for (int i = 0; i < prefixDepth; i++) {
+            int slash = key.indexOf('/', end + 1);
+            if (slash < 0) {
+                break;
+            }
+            end = slash;
+        }
+        return bucket + "/" + key.substring(0, end + 1);
+    }
+
+    public record LimitStats(double limit, int inFlight, int waiting, long backoffs) {}
+
+    private record Permit(Limit limit, long window, long startNanos, AtomicBoolean released) {}
+
+    private final class Limit {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private double limit;
+        private int inFlight;
+        private int waiting;
+        private long window;
+        private long backoffs;
+        private double averageLatencyNanos;
+        private long lastUsedNanos = System.nanoTime();
+        private boolean retired;
+
+        Limit(int initial) {
+            this.limit = initial;
+        }
+
+        Permit acquire() {
+            lock.lock();
+            try {
+                if (retired) {
+                    return null;
+                }
+                waiting++;
+                try {
+                    while (inFlight >= (int) limit) {
+                        available.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw SdkClientException.create("Interrupted while waiting for an S3 concurrency permit", e);
+                } finally {
+                    waiting--;
+                }
+                inFlight++;
+                lastUsedNanos = System.nanoTime();
+                return new Permit(this, window, System.nanoTime(), new AtomicBoolean());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void throttled(Permit permit) {
+            lock.lock();
+            try {
+                // only calls started after the last decrease may trigger another one
+                if (permit.window() == window) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    window++;
+                    backoffs++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Permit permit, boolean success) {
+            if (!permit.released().compareAndSet(false, true)) {
+                return;
+            }
+            long latency = System.nanoTime() - permit.startNanos();
+            lock.lock();
+            try {
+                inFlight--;
+                lastUsedNanos = System.nanoTime();
+                if (success) {
+                    boolean slow = averageLatencyNanos > 0 && latency > averageLatencyNanos * LATENCY_TOLERANCE;
+                    averageLatencyNanos = averageLatencyNanos == 0
+                            ? latency
+                            : averageLatencyNanos + LATENCY_SMOOTHING * (latency - averageLatencyNanos);
+                    if (!slow && permit.window() == window) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean retireIfIdle(long cutoffNanos) {
+            lock.lock();
+            try {
+                retired = inFlight == 0 && waiting == 0 && lastUsedNanos - cutoffNanos < 0;
+                return retired;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        LimitStats stats() {
+            lock.lock();
+            try {
+                return new LimitStats(limit, inFlight, waiting, backoffs);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
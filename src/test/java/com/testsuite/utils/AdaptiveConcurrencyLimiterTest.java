@@ -0,0 +1,42 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void ScopesFollowBucketAndPrefixDepth() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 2);
+        Assert.assertEquals(limiter.scopeOf(HeadObjectRequest.builder().bucket("b").key("a/b/c/d.txt").build()), "b/a/b/");
+        Assert.assertEquals(limiter.scopeOf(HeadObjectRequest.builder().bucket("b").key("a/d.txt").build()), "b/a/");
+        Assert.assertEquals(limiter.scopeOf(HeadObjectRequest.builder().bucket("b").key("d.txt").build()), "b/");
+    }
+
+    @Test
+    public void IdleScopesAreEvictedButBusyOnesAreKept() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 1, Duration.ofMinutes(5));
+        ExecutionAttributes busy = new ExecutionAttributes();
+        ExecutionAttributes done = new ExecutionAttributes();
+        limiter.beforeExecution(() -> HeadObjectRequest.builder().bucket("busy").key("p/k").build(), busy);
+        limiter.beforeExecution(() -> HeadObjectRequest.builder().bucket("done").key("p/k").build(), done);
+        limiter.afterExecution(null, done);
+        Assert.assertEquals(limiter.snapshot().keySet().toString(), "[busy/p/, done/p/]");
+
+        limiter.evictIdle(System.nanoTime() - Duration.ofMinutes(5).toNanos());
+        Assert.assertEquals(limiter.snapshot().size(), 2, "Recently used scopes must survive");
+        limiter.evictIdle(System.nanoTime() + 1);
+        Assert.assertEquals(limiter.snapshot().keySet().toString(), "[busy/p/]");
+
+        limiter.afterExecution(null, busy);
+        limiter.evictIdle(System.nanoTime() + 1);
+        Assert.assertTrue(limiter.snapshot().isEmpty());
+        limiter.beforeExecution(() -> HeadObjectRequest.builder().bucket("done").key("p/k").build(), done);
+        Assert.assertEquals(limiter.snapshot().get("done/p/").inFlight(), 1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.testsuite.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+final class BatchDeleter implements AutoCloseable {
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final ExecutorService workers;
+    private final Semaphore queuedBatches;
+    private final AtomicLong deleted = new AtomicLong();
+    private final ConcurrentLinkedQueue<DeleteSummary.Failure> failures = new ConcurrentLinkedQueue<>();
+    private List<ObjectIdentifier> pending = new ArrayList<>(MAX_BATCH_SIZE);
+
+    BatchDeleter(S3Client s3, String bucket, int workerCount) {
+        int workerThreads = Math.max(1, workerCount);
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.workers = DaemonThreads.fixedPool("s3-delete-" + bucket, workerThreads);
+        // at most two batches per worker are queued, so a fast lister blocks instead of buffering the bucket
+        this.queuedBatches = new Semaphore(workerThreads * 2);
+    }
+
+    void add(String key, String versionId) {
+        pending.add(ObjectIdentifier.builder().key(key).versionId(versionId).build());
+        if (pending.size() == MAX_BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    DeleteSummary finish() {
+        flush();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for deletes in " + bucket, e);
+        }
+        return new DeleteSummary(deleted.get(), List.copyOf(failures));
+    }
+
+    long deleted() {
+        return deleted.get();
+    }
+
+    int failureCount() {
+        return failures.size();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<ObjectIdentifier> batch = pending;
+        pending = new ArrayList<>(MAX_BATCH_SIZE);
+        queuedBatches.acquireUninterruptibly();
+        try {
+            workers.execute(() -> {
+                try {
+                    deleteBatch(batch);
+                } finally {
+                    queuedBatches.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            queuedBatches.release();
+            throw e;
+        }
+    }
+
+    private void deleteBatch(List<ObjectIdentifier> batch) {
+        try {
+            DeleteObjectsResponse res = s3.deleteObjects(b -> b.bucket(bucket).delete(d -> d.objects(batch).quiet(true)));
+            for (S3Error error : res.errors()) {
+                failures.add(new DeleteSummary.Failure(error.key(), error.versionId(), error.code(), error.message()));
+            }
+            deleted.addAndGet(batch.size() - res.errors().size());
+        } catch (SdkException e) {
+            String code = e instanceof AwsServiceException ase && ase.awsErrorDetails() != null
+                    ? ase.awsErrorDetails().errorCode()
+                    : e.getClass().getSimpleName();
+            for (ObjectIdentifier id : batch) {
+                failures.add(new DeleteSummary.Failure(id.key(), id.versionId(), code, e.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.testsuite.utils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+// Records which bucket-level configuration calls were made against tracked (pooled) buckets, so a
+// pool can undo only what a test changed and retire buckets whose state it cannot restore.
+final class BucketConfigTracker implements ExecutionInterceptor {
+    static final String DELETED = "DeleteBucket";
+    // put operations whose effect the pool can undo with the matching delete call
+    static final Map<String, String> RESETTABLE = Map.of(
+            "PutBucketCors", "cors",
+            "PutBucketWebsite", "website",
+            "PutBucketLifecycleConfiguration", "lifecycle",
+            "PutBucketLifecycle", "lifecycle",
+            "PutBucketPolicy", "policy",
+            "PutBucketTagging", "tagging");
+    private static final Pattern CONFIG_CALL = Pattern.compile(
+            "(Put|Delete)(Bucket\\w*|PublicAccessBlock|ObjectLockConfiguration)");
+    private static final BucketConfigTracker SHARED = new BucketConfigTracker();
+
+    private final ConcurrentMap<String, Set<String>> changes = new ConcurrentHashMap<>();
+
+    static BucketConfigTracker shared() {
+        return SHARED;
+    }
+
+    void track(String bucket) {
+        changes.put(bucket, ConcurrentHashMap.newKeySet());
+    }
+
+    // returns the recorded operations and stops tracking the bucket
+    Set<String> untrack(String bucket) {
+        Set<String> recorded = changes.remove(bucket);
+        return recorded == null ? Set.of() : recorded;
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(context.request());
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(context.request());
+    }
+
+    private void record(SdkRequest request) {
+        String bucket = request.getValueForField("Bucket", String.class).orElse(null);
+        Set<String> recorded = bucket == null ? null : changes.get(bucket);
+        if (recorded == null) {
+            return;
+        }
+        String operation = request.getClass().getSimpleName().replaceFirst("Request$", "");
+        // deleting a resettable configuration already restores the default
+        boolean resetByDelete = operation.startsWith("Delete")
+                && RESETTABLE.containsKey(operation.replaceFirst("^Delete", "Put"));
+        if (operation.equals(DELETED) || !resetByDelete && CONFIG_CALL.matcher(operation).matches()) {
+            recorded.add(operation);
+        }
+    }
+}
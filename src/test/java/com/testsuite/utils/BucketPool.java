@@ -0,0 +1,176 @@
+package com.testsuite.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+
+// Pre-created buckets leased to tests instead of a create/delete round trip per test. A released bucket
+// is reset in the background: the bucket configurations the test set are deleted, open multipart uploads
+// aborted and the objects removed in batches. Buckets whose configuration cannot be restored (versioning,
+// ACLs, encryption, ownership, public access block, ...) are emptied and deleted instead of reused.
+public final class BucketPool implements AutoCloseable {
+    public static final int DEFAULT_SIZE = 8;
+
+    private final S3Utilities s3Utils;
+    private final BucketConfigTracker tracker = BucketConfigTracker.shared();
+    private final ConcurrentLinkedQueue<String> idle = new ConcurrentLinkedQueue<>();
+    private final Set<String> buckets = ConcurrentHashMap.newKeySet();
+    private final Set<String> leased = ConcurrentHashMap.newKeySet();
+    // idle buckets that came back through a reset, as opposed to the ones created up front
+    private final Set<String> recycled = ConcurrentHashMap.newKeySet();
+    private final ExecutorService resets = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+
+    public BucketPool(S3Utilities s3Utils) {
+        this(s3Utils, Config.getInt("s3BucketPoolSize", DEFAULT_SIZE));
+    }
+
+    public BucketPool(S3Utilities s3Utils, int size) {
+        this.s3Utils = s3Utils;
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            pending.add(CompletableFuture.supplyAsync(this::create, resets));
+        }
+        try {
+            pending.forEach(f -> idle.add(f.join()));
+        } catch (CompletionException e) {
+            close();
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    // an idle reset bucket, or a freshly created one when every pooled bucket is in use or being reset
+    public String lease() {
+        String bucket = idle.poll();
+        if (bucket == null) {
+            bucket = create();
+        } else if (recycled.remove(bucket)) {
+            reused.incrementAndGet();
+        }
+        tracker.track(bucket);
+        leased.add(bucket);
+        return bucket;
+    }
+
+    public boolean isLeased(String bucket) {
+        return leased.contains(bucket);
+    }
+
+    // returns immediately; the bucket rejoins the pool once its reset has finished
+    public void release(String bucket) {
+        if (!leased.remove(bucket)) {
+            throw new IllegalArgumentException("Bucket is not leased from this pool: " + bucket);
+        }
+        Set<String> changes = tracker.untrack(bucket);
+        resets.execute(() -> recycle(bucket, changes));
+    }
+
+    public Stats stats() {
+        return new Stats(buckets.size(), idle.size(), leased.size(), created.get(), reused.get(), retired.get());
+    }
+
+    @Override
+    public void close() {
+        resets.shutdown();
+        try {
+            if (!resets.awaitTermination(5, TimeUnit.MINUTES)) {
+                System.err.println("Error closing bucket pool: resets still running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (String bucket : leased) {
+            tracker.untrack(bucket);
+        }
+        leased.clear();
+        idle.clear();
+        recycled.clear();
+        List.copyOf(buckets).parallelStream().forEach(this::retire);
+    }
+
+    private String create() {
+        String bucket;
+        do {
+            bucket = s3Utils.generateRandomBucketName();
+        } while (!buckets.add(bucket));
+        try {
+            s3Utils.createBucket(bucket);
+        } catch (RuntimeException e) {
+            buckets.remove(bucket);
+            throw e;
+        }
+        created.incrementAndGet();
+        return bucket;
+    }
+
+    private void recycle(String bucket, Set<String> changes) {
+        boolean restorable = changes.stream().allMatch(BucketConfigTracker.RESETTABLE::containsKey);
+        if (!restorable) {
+            retire(bucket);
+            return;
+        }
+        try {
+            for (String operation : changes) {
+                switch (BucketConfigTracker.RESETTABLE.get(operation)) {
+                    case "cors" -> s3Utils.deleteBucketCors(bucket);
+                    case "website" -> s3Utils.deleteBucketWebsite(bucket);
+                    case "lifecycle" -> s3Utils.deleteBucketLifecycle(bucket);
+                    case "policy" -> s3Utils.deleteBucketPolicy(bucket);
+                    case "tagging" -> s3Utils.deleteBucketTagging(bucket);
+                    default -> throw new IllegalStateException("Unknown configuration " + operation);
+                }
+            }
+            abortUploads(bucket);
+            DeleteSummary summary = s3Utils.emptyBucket(bucket);
+            if (!summary.isSuccessful()) {
+                throw new IllegalStateException(summary.failures().size() + " objects could not be deleted");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error resetting pooled bucket " + bucket + ": " + e.getMessage());
+            retire(bucket);
+            return;
+        }
+        recycled.add(bucket);
+        idle.add(bucket);
+    }
+
+    private void abortUploads(String bucket) {
+        ListMultipartUploadsResponse uploads;
+        do {
+            uploads = s3Utils.listMultipartUploads(bucket);
+            for (MultipartUpload upload : uploads.uploads()) {
+                s3Utils.abortMultipartUpload(bucket, upload.key(), upload.uploadId());
+            }
+        } while (Boolean.TRUE.equals(uploads.isTruncated()));
+    }
+
+    // removes every version and the bucket itself; a bucket the test already deleted is just forgotten
+    private void retire(String bucket) {
+        buckets.remove(bucket);
+        retired.incrementAndGet();
+        try {
+            abortUploads(bucket);
+            s3Utils.emptyBucketAllVersionsAndDelete(bucket);
+        } catch (NoSuchBucketException e) {
+            // already gone
+        } catch (RuntimeException e) {
+            System.err.println("Error deleting pooled bucket " + bucket + ": " + e.getMessage());
+        }
+    }
+
+    public record Stats(int buckets, int idle, int leased, long created, long reused, long retired) {}
+}
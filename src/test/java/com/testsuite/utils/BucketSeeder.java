@@ -0,0 +1,217 @@
+package com.testsuite.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Fills a bucket with generated objects through S3AsyncUtilities, keeping up to `concurrency` puts in
+// flight. Keys and sizes are pure functions of the object index, so a run can resume from a checkpoint
+// file and produce exactly the objects an uninterrupted run would have. The checkpoint only advances
+// past a block of CHECKPOINT_INTERVAL objects once every put in it and before it has succeeded.
+public final class BucketSeeder {
+    public static final int CHECKPOINT_INTERVAL = 10_000;
+    private static final int CONTENT_JITTER = 4096;
+
+    private final S3AsyncUtilities s3;
+    private final int concurrency;
+
+    public BucketSeeder(S3AsyncUtilities s3) {
+        this(s3, Config.getInt("s3SeedConcurrency", Config.getInt("s3MaxConcurrency", S3AsyncUtilities.DEFAULT_MAX_CONCURRENCY)));
+    }
+
+    public BucketSeeder(S3AsyncUtilities s3, int concurrency) {
+        this.s3 = s3;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    // checkpoint may be null for a one-shot run; progress is called each time the checkpoint advances
+    public SeedSummary seed(String bucket, long count, Layout layout, SizeDistribution sizes, Path checkpoint,
+                            Consumer<SeedSummary> progress) {
+        String spec = bucket + "|" + count + "|" + layout + "|" + sizes;
+        long resumedFrom = readCheckpoint(checkpoint, spec);
+        long startNanos = System.nanoTime();
+        AtomicLong seeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicBoolean errorLogged = new AtomicBoolean();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentSkipListMap<Long, Block> blocks = new ConcurrentSkipListMap<>();
+        byte[] content = FileCreator.createTextContent("seed", sizes.maxBytes() + CONTENT_JITTER);
+
+        Runnable advance = () -> {
+            synchronized (blocks) {
+                Map.Entry<Long, Block> first;
+                while ((first = blocks.firstEntry()) != null && first.getValue().remaining.get() == 0 && !first.getValue().failed) {
+                    blocks.pollFirstEntry();
+                    writeCheckpoint(checkpoint, spec, first.getValue().end);
+                    report(progress, seeded, failed, bytes, resumedFrom, startNanos);
+                }
+            }
+        };
+
+        try {
+            for (long index = resumedFrom; index < count; index++) {
+                Block block = blocks.computeIfAbsent(index / CHECKPOINT_INTERVAL, b -> new Block(
+                        Math.max(resumedFrom, b * CHECKPOINT_INTERVAL), Math.min(count, (b + 1) * CHECKPOINT_INTERVAL)));
+                String key = layout.keyFor(index);
+                int size = sizes.sizeFor(index);
+                int offset = (int) ((mix(index) >>> 1) % CONTENT_JITTER);
+                inFlight.acquire();
+                s3.putObject(bucket, key, Arrays.copyOfRange(content, offset, offset + size), "text/plain")
+                        .whenComplete((res, e) -> {
+                            // the permit goes back last, so once seed() holds them all every count and checkpoint is in
+                            try {
+                                if (e == null) {
+                                    seeded.incrementAndGet();
+                                    bytes.addAndGet(size);
+                                } else {
+                                    failed.incrementAndGet();
+                                    block.failed = true;
+                                    if (errorLogged.compareAndSet(false, true)) {
+                                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                                        System.err.println("Error seeding " + key + ": " + cause.getMessage());
+                                    }
+                                }
+                                if (block.remaining.decrementAndGet() == 0) {
+                                    advance.run();
+                                }
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+            }
+            inFlight.acquire(concurrency);
+            inFlight.release(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while seeding " + bucket, e);
+        }
+        return new SeedSummary(seeded.get(), resumedFrom, failed.get(), bytes.get(), Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private static void report(Consumer<SeedSummary> progress, AtomicLong seeded, AtomicLong failed, AtomicLong bytes,
+                               long resumedFrom, long startNanos) {
+        if (progress != null) {
+            progress.accept(new SeedSummary(seeded.get(), resumedFrom, failed.get(), bytes.get(),
+                    Duration.ofNanos(System.nanoTime() - startNanos)));
+        }
+    }
+
+    // a checkpoint written for a different bucket, count, layout or size distribution is ignored
+    private static long readCheckpoint(Path checkpoint, String spec) {
+        if (checkpoint == null || !Files.isRegularFile(checkpoint)) {
+            return 0;
+        }
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint)) {
+            props.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read seed checkpoint " + checkpoint, e);
+        }
+        if (!spec.equals(props.getProperty("spec"))) {
+            return 0;
+        }
+        return Long.parseLong(props.getProperty("next", "0"));
+    }
+
+    private static void writeCheckpoint(Path checkpoint, String spec, long next) {
+        if (checkpoint == null) {
+            return;
+        }
+        Properties props = new Properties();
+        props.setProperty("spec", spec);
+        props.setProperty("next", Long.toString(next));
+        try {
+            Path dir = checkpoint.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, ".seed-", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, null);
+            }
+            Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write seed checkpoint " + checkpoint, e);
+        }
+    }
+
+    // splitmix64 finalizer: spreads consecutive indexes across hash prefixes and sizes
+    static long mix(long index) {
+        long z = index + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // prefix/[hash/]dNN/.../obj-NNNNNNNNNN; consecutive indexes go to different leaf directories
+    public record Layout(String prefix, int depth, int fanOut, boolean hashPrefix) {
+
+        public String keyFor(long index) {
+            StringBuilder key = new StringBuilder();
+            if (prefix != null && !prefix.isEmpty()) {
+                key.append(prefix.endsWith("/") ? prefix : prefix + "/");
+            }
+            if (hashPrefix) {
+                key.append(String.format("%04x/", mix(index) & 0xffff));
+            }
+            long dir = index;
+            for (int level = 0; level < depth; level++) {
+                key.append('d').append(dir % fanOut).append('/');
+                dir /= fanOut;
+            }
+            return key.append(String.format("obj-%010d", index)).toString();
+        }
+    }
+
+    // sizes between min and max bytes, uniform or log-uniform (many small objects, few large ones)
+    public record SizeDistribution(int minBytes, int maxBytes, boolean logUniform) {
+
+        public SizeDistribution {
+            if (minBytes < 0 || maxBytes < minBytes) {
+                throw new IllegalArgumentException("Invalid size range " + minBytes + ".." + maxBytes);
+            }
+        }
+
+        public static SizeDistribution fixed(int bytes) {
+            return new SizeDistribution(bytes, bytes, false);
+        }
+
+        public int sizeFor(long index) {
+            if (minBytes == maxBytes) {
+                return minBytes;
+            }
+            double u = new SplittableRandom(mix(index)).nextDouble();
+            if (!logUniform) {
+                return (int) (minBytes + u * (maxBytes - minBytes + 1L));
+            }
+            double low = Math.log(Math.max(1, minBytes));
+            double high = Math.log(maxBytes + 1.0);
+            return (int) Math.min(maxBytes, Math.max(minBytes, Math.exp(low + u * (high - low))));
+        }
+    }
+
+    private static final class Block {
+        final long end;
+        final AtomicInteger remaining;
+        volatile boolean failed;
+
+        Block(long begin, long end) {
+            this.end = end;
+            this.remaining = new AtomicInteger((int) (end - begin));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.testsuite.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BucketSeederTest {
+
+    @Test
+    public void LayoutSpreadsKeysOverFanOutDirectories() {
+        BucketSeeder.Layout layout = new BucketSeeder.Layout("seed", 2, 4, false);
+        Assert.assertEquals(layout.keyFor(0), "seed/d0/d0/obj-0000000000");
+        Assert.assertEquals(layout.keyFor(6), "seed/d2/d1/obj-0000000006");
+        Assert.assertEquals(new BucketSeeder.Layout("seed/", 0, 4, false).keyFor(3), "seed/obj-0000000003");
+        Assert.assertEquals(new BucketSeeder.Layout(null, 1, 3, false).keyFor(5), "d2/obj-0000000005");
+
+        Set<String> directories = new HashSet<>();
+        for (long i = 0; i < 64; i++) {
+            String key = layout.keyFor(i);
+            directories.add(key.substring(0, key.lastIndexOf('/')));
+        }
+        Assert.assertEquals(directories.size(), 16, "depth 2 with fan-out 4 gives 16 leaf directories");
+    }
+
+    @Test
+    public void HashPrefixIsStableAndUnique() {
+        BucketSeeder.Layout layout = new BucketSeeder.Layout("seed", 1, 8, true);
+        Set<String> keys = new HashSet<>();
+        Set<String> hashes = new HashSet<>();
+        for (long i = 0; i < 10_000; i++) {
+            String key = layout.keyFor(i);
+            Assert.assertEquals(layout.keyFor(i), key);
+            Assert.assertTrue(key.matches("seed/[0-9a-f]{4}/d[0-7]/obj-\\d{10}"), key);
+            keys.add(key);
+            hashes.add(key.substring(5, 9));
+        }
+        Assert.assertEquals(keys.size(), 10_000);
+        Assert.assertTrue(hashes.size() > 5_000, "hash prefixes should be spread out, got " + hashes.size());
+    }
+
+    @Test
+    public void SizesAreDeterministicAndInRange() {
+        BucketSeeder.SizeDistribution uniform = new BucketSeeder.SizeDistribution(100, 1_000, false);
+        BucketSeeder.SizeDistribution logUniform = new BucketSeeder.SizeDistribution(100, 1_000_000, true);
+        long uniformBelowMid = 0;
+        long logBelowMid = 0;
+        for (long i = 0; i < 10_000; i++) {
+            int u = uniform.sizeFor(i);
+            int l = logUniform.sizeFor(i);
+            Assert.assertTrue(u >= 100 && u <= 1_000, "uniform size " + u);
+            Assert.assertTrue(l >= 100 && l <= 1_000_000, "log-uniform size " + l);
+            Assert.assertEquals(uniform.sizeFor(i), u);
+            uniformBelowMid += u < 550 ? 1 : 0;
+            logBelowMid += l < 500_050 ? 1 : 0;
+        }
+        Assert.assertEquals(uniformBelowMid / 10_000.0, 0.5, 0.03);
+        Assert.assertTrue(logBelowMid > 9_000, "log-uniform sizes should favour small objects");
+        Assert.assertEquals(BucketSeeder.SizeDistribution.fixed(42).sizeFor(7), 42);
+        Assert.assertThrows(IllegalArgumentException.class, () -> new BucketSeeder.SizeDistribution(10, 5, false));
+    }
+}
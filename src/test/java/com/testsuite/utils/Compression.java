@@ -0,0 +1,93 @@
+package com.testsuite.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+// gzip support for S3Utilities' compression mode. Compressed objects carry Content-Encoding: gzip and
+// the original length in metadata; only objects with that marker are decompressed on read.
+final class Compression {
+    static final String ENCODING = "gzip";
+    static final String UNCOMPRESSED_LENGTH = "uncompressed-length";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> TEXT_TYPES = Set.of(
+            "application/json", "application/xml", "application/x-yaml", "application/yaml",
+            "application/javascript", "application/x-ndjson", "application/csv", "application/x-sh");
+    private static final Set<String> TEXT_EXTENSIONS = Set.of(
+            "txt", "csv", "json", "xml", "html", "htm", "yml", "yaml", "log", "java", "go", "md");
+
+    private Compression() {}
+
+    // already-compressed formats (PNG, JPEG, PDF, archives) and unknown binary types are left alone
+    static boolean isCompressible(String contentType, Path file) {
+        if (contentType != null && !contentType.isBlank()) {
+            String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            return type.startsWith("text/") || TEXT_TYPES.contains(type) || type.endsWith("+json") || type.endsWith("+xml");
+        }
+        if (file == null) {
+            return false;
+        }
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return name.equals("Dockerfile") || dot >= 0 && TEXT_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    static Map<String, String> metadata(Map<String, String> metadata, long uncompressedLength) {
+        Map<String, String> result = metadata == null ? new HashMap<>() : new HashMap<>(metadata);
+        result.put(UNCOMPRESSED_LENGTH, Long.toString(uncompressedLength));
+        return result;
+    }
+
+    static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // streams the file through gzip into a temp file the caller uploads and deletes
+    static Path gzip(Path file) throws IOException {
+        Path compressed = Files.createTempFile("s3-gzip-", ".gz");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(compressed);
+            throw e;
+        }
+        return compressed;
+    }
+
+    static boolean isCompressed(GetObjectResponse response) {
+        return ENCODING.equalsIgnoreCase(response.contentEncoding()) && response.metadata().containsKey(UNCOMPRESSED_LENGTH);
+    }
+
+    static ResponseInputStream<GetObjectResponse> decode(ResponseInputStream<GetObjectResponse> in) {
+        if (!isCompressed(in.response())) {
+            return in;
+        }
+        try {
+            return new ResponseInputStream<>(in.response(), AbortableInputStream.create(new GZIPInputStream(in, BUFFER_SIZE), in));
+        } catch (IOException e) {
+            in.abort();
+            throw new UncheckedIOException("Corrupt gzip stream for compressed object", e);
+        }
+    }
+}
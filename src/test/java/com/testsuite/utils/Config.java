@@ -17,6 +17,16 @@ public class Config {
         if (v != null && !v.isBlank()) return v;
         return p.getProperty(key);
     }
+    public static int getInt(String key, int defaultValue) {
+        String v = get(key);
+        if (v == null || v.isBlank()) return defaultValue;
+        return Integer.parseInt(v.trim());
+    }
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String v = get(key);
+        if (v == null || v.isBlank()) return defaultValue;
+        return Boolean.parseBoolean(v.trim());
+    }
 }
 
 
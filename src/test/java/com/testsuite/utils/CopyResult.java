@@ -0,0 +1,3 @@
+package com.testsuite.utils;
+
+public record CopyResult(String eTag, String versionId, boolean multipart) {}
@@ -0,0 +1,20 @@
+package com.testsuite.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Worker pools for the parallel helpers. The threads are daemons so a stuck S3 call never keeps the
+// test JVM alive after the suite has finished.
+final class DaemonThreads {
+    private DaemonThreads() {
+    }
+
+    static ThreadFactory factory(String name) {
+        return Thread.ofPlatform().name(name).daemon(true).factory();
+    }
+
+    static ExecutorService fixedPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, factory(name));
+    }
+}
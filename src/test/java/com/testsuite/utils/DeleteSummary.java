@@ -0,0 +1,12 @@
+package com.testsuite.utils;
+
+import java.util.List;
+
+public record DeleteSummary(long deleted, List<Failure> failures) {
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    public record Failure(String key, String versionId, String code, String message) {}
+}
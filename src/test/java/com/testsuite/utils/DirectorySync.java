@@ -0,0 +1,279 @@
+package com.testsuite.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+// Incremental sync between a local tree and an S3 prefix. The remote listing and the local walk run
+// concurrently, and the walk lists subdirectories in parallel on the worker pool. A file is transferred
+// only when it is missing on the other side or its size or MD5 differs from the listed ETag. Hashing is
+// done on the worker pool and only when sizes already match.
+final class DirectorySync {
+    static final long MULTIPART_THRESHOLD = 64L * 1024 * 1024;
+    private static final long[] COMMON_PART_SIZES = {5L << 20, 8L << 20, 16L << 20, 64L << 20, 100L << 20};
+
+    private final S3Utilities s3Utils;
+    private final int workers;
+
+    DirectorySync(S3Utilities s3Utils, int workers) {
+        this.s3Utils = s3Utils;
+        this.workers = Math.max(1, workers);
+    }
+
+    SyncSummary syncUp(Path dir, String bucket, String prefix) throws IOException {
+        String base = normalize(prefix);
+        ExecutorService pool = newPool("s3-sync-up-" + bucket);
+        try {
+            CompletableFuture<Map<String, S3Object>> remote = CompletableFuture.supplyAsync(() -> listRemote(bucket, base), pool);
+            List<Path> files = walk(dir, pool);
+            Map<String, S3Object> remoteObjects = join(remote);
+            return run(pool, files, file -> {
+                String key = base + dir.relativize(file).toString().replace(File.separatorChar, '/');
+                S3Object existing = remoteObjects.get(key);
+                long size = Files.size(file);
+                if (existing != null && existing.size() == size && matchesETag(file, size, existing.eTag())) {
+                    return -1L;
+                }
+                String contentType = Files.probeContentType(file);
+                if (size >= MULTIPART_THRESHOLD) {
+                    new MultipartUploader(s3Utils).upload(bucket, key, file, contentType);
+                } else {
+                    s3Utils.putFileObject(bucket, key, file, contentType);
+                }
+                return size;
+            }, file -> base + dir.relativize(file).toString().replace(File.separatorChar, '/'));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    SyncSummary syncDown(String bucket, String prefix, Path dir) throws IOException {
+        String base = normalize(prefix);
+        Path root = dir.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        ExecutorService pool = newPool("s3-sync-down-" + bucket);
+        try {
+            CompletableFuture<Map<String, S3Object>> remote = CompletableFuture.supplyAsync(() -> listRemote(bucket, base), pool);
+            List<S3Object> objects = join(remote).values().stream()
+                    .filter(o -> !o.key().endsWith("/"))
+                    .collect(Collectors.toList());
+            return run(pool, objects, object -> {
+                Path target = root.resolve(object.key().substring(base.length())).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Key escapes the target directory");
+                }
+                if (Files.isRegularFile(target) && Files.size(target) == object.size()
+                        && matchesETag(target, object.size(), object.eTag())) {
+                    return -1L;
+                }
+                Files.createDirectories(target.getParent());
+                if (object.size() >= MULTIPART_THRESHOLD) {
+                    s3Utils.downloadToFile(bucket, object.key(), target, 4);
+                } else {
+                    Path tmp = Files.createTempFile(target.getParent(), ".sync-", ".tmp");
+                    try (ResponseInputStream<GetObjectResponse> in = s3Utils.getObjectAsStream(bucket, object.key())) {
+                        Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        Files.deleteIfExists(tmp);
+                    }
+                }
+                return object.size();
+            }, S3Object::key);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private <T> SyncSummary run(ExecutorService pool, List<T> items, Transfer<T> transfer, Function<T, String> keyOf) throws IOException {
+        AtomicLong transferred = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        ConcurrentLinkedQueue<SyncSummary.Failure> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> tasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            tasks.add(pool.submit(() -> {
+                try {
+                    long sent = transfer.apply(item);
+                    if (sent < 0) {
+                        skipped.incrementAndGet();
+                    } else {
+                        transferred.incrementAndGet();
+                        bytes.addAndGet(sent);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failures.add(new SyncSummary.Failure(keyOf.apply(item), e.getMessage()));
+                }
+            }));
+        }
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during sync", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Sync task failed", e.getCause());
+        }
+        return new SyncSummary(transferred.get(), skipped.get(), bytes.get(), new ArrayList<>(failures));
+    }
+
+    // lists every directory as its own pool task; tasks never wait on each other, so a pool that is also
+    // running the remote listing cannot deadlock. Like Files.walk, symbolic links to directories are not followed.
+    private static List<Path> walk(Path dir, ExecutorService pool) throws IOException {
+        ConcurrentLinkedQueue<Path> files = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<IOException> errors = new ConcurrentLinkedQueue<>();
+        AtomicInteger pending = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        scan(dir, pool, files, errors, pending, done);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while walking " + dir, e);
+        }
+        if (!errors.isEmpty()) {
+            throw errors.peek();
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static void scan(Path directory, ExecutorService pool, ConcurrentLinkedQueue<Path> files,
+                             ConcurrentLinkedQueue<IOException> errors, AtomicInteger pending, CountDownLatch done) {
+        pending.incrementAndGet();
+        pool.execute(() -> {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        scan(entry, pool, files, errors, pending, done);
+                    } else if (Files.isRegularFile(entry)) {
+                        files.add(entry);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.add(e instanceof IOException io ? io : new IOException("Failed to walk " + directory, e));
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+            }
+        });
+    }
+
+    private Map<String, S3Object> listRemote(String bucket, String base) {
+        try (Stream<S3Object> objects = new ParallelLister(s3Utils, workers).listByDelimiter(bucket, base, "/")) {
+            return objects.collect(Collectors.toMap(S3Object::key, o -> o, (a, b) -> a));
+        }
+    }
+
+    // single-part ETags are the MD5; multipart ETags are checked against the likely part sizes
+    static boolean matchesETag(Path file, long size, String eTag) throws IOException {
+        if (eTag == null) {
+            return false;
+        }
+        String expected = eTag.replace("\"", "");
+        int dash = expected.indexOf('-');
+        if (dash < 0) {
+            return expected.equalsIgnoreCase(HexFormat.of().formatHex(md5(file, 0, size)));
+        }
+        int parts;
+        try {
+            parts = Integer.parseInt(expected.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        List<Long> candidates = new ArrayList<>();
+        candidates.add(MultipartUploader.partSizeFor(size));
+        for (long partSize : COMMON_PART_SIZES) {
+            candidates.add(partSize);
+        }
+        for (long partSize : candidates.stream().distinct().toList()) {
+            if ((size + partSize - 1) / partSize != parts) {
+                continue;
+            }
+            MessageDigest combined = ParallelDownloader.md5();
+            for (long offset = 0; offset < size; offset += partSize) {
+                combined.update(md5(file, offset, Math.min(partSize, size - offset)));
+            }
+            if ((HexFormat.of().formatHex(combined.digest()) + "-" + parts).equalsIgnoreCase(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] md5(Path file, long offset, long length) throws IOException {
+        MessageDigest md5 = ParallelDownloader.md5();
+        ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int n = channel.read(buffer, position);
+                if (n < 0) {
+                    break;
+                }
+                buffer.flip();
+                md5.update(buffer);
+                position += n;
+            }
+        }
+        return md5.digest();
+    }
+
+    private static String normalize(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return "";
+        }
+        return prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Listing failed", e.getCause());
+        }
+    }
+
+    private ExecutorService newPool(String name) {
+        return DaemonThreads.fixedPool(name, workers);
+    }
+
+    private interface Transfer<T> {
+        long apply(T item) throws IOException;
+    }
+}
@@ -49,6 +49,19 @@ public class FileCreator {
         return createTextFileSizeInKB(folderPath, tcNumber, sizeInMB * 1024);
     }
 
+    // in-memory text payload of exactly sizeInBytes, for callers that upload without touching disk
+    public static byte[] createTextContent(String tcNumber, int sizeInBytes) {
+        byte[] base = baseText(tcNumber).getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[sizeInBytes];
+        int head = Math.min(base.length, sizeInBytes);
+        System.arraycopy(base, 0, content, 0, head);
+        byte[] fill = randAlNum(Math.min(4096, sizeInBytes - head)).getBytes(StandardCharsets.US_ASCII);
+        for (int i = head; i < sizeInBytes; i += fill.length) {
+            System.arraycopy(fill, 0, content, i, Math.min(fill.length, sizeInBytes - i));
+        }
+        return content;
+    }
+
     public static String createTextFileWithSpecificText(String folderPath, String tcNumber, String text) {
         String fileName = "Text_" + tcNumber + "_" + now() + ".txt";
         writeString(Path.of(folderPath, fileName), text);
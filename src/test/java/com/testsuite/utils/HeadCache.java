@@ -0,0 +1,144 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.DeleteBucketRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+// Caches HeadObject/HeadBucket responses for a TTL and collapses concurrent identical HEADs into one
+// call. Registered as an interceptor on the owning client so every put, copy, delete and multipart
+// completion sent through it invalidates the affected entries, whichever helper issued it.
+final class HeadCache implements ExecutionInterceptor {
+    static final int MAX_ENTRIES = 10_000;
+
+    private final ConcurrentMap<Key, Cached> values = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private volatile long ttlNanos;
+
+    HeadCache(Duration ttl) {
+        setTtl(ttl);
+    }
+
+    void setTtl(Duration ttl) {
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        if (ttlNanos == 0) {
+            values.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String bucket, String key, String versionId, Supplier<T> loader) {
+        Key cacheKey = new Key(bucket, key, versionId);
+        Cached cached = values.get(cacheKey);
+        if (cached != null && System.nanoTime() < cached.expiresAt()) {
+            return (T) cached.value();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(cacheKey, mine);
+        if (leader != null) {
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw e;
+            }
+        }
+        try {
+            T value = loader.get();
+            long ttl = ttlNanos;
+            // an invalidation while we were loading removes our future, so the stale result is not stored
+            if (inFlight.remove(cacheKey, mine) && ttl > 0) {
+                if (values.size() >= MAX_ENTRIES) {
+                    long now = System.nanoTime();
+                    values.values().removeIf(c -> now >= c.expiresAt());
+                    if (values.size() >= MAX_ENTRIES) {
+                        values.clear();
+                    }
+                }
+                values.put(cacheKey, new Cached(value, System.nanoTime() + ttl));
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            inFlight.remove(cacheKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    void invalidateObject(String bucket, String key) {
+        invalidate(k -> k.bucket().equals(bucket) && key.equals(k.key()));
+    }
+
+    void invalidatePrefix(String bucket, String prefix) {
+        invalidate(k -> k.bucket().equals(bucket) && k.key() != null && (prefix == null || k.key().startsWith(prefix)));
+    }
+
+    void invalidateBucket(String bucket) {
+        invalidate(k -> k.bucket().equals(bucket));
+    }
+
+    void clear() {
+        invalidate(k -> true);
+    }
+
+    private void invalidate(Predicate<Key> filter) {
+        values.keySet().removeIf(filter);
+        inFlight.keySet().removeIf(filter);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        invalidateFor(context.request());
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        // a failed or timed-out write may still have been applied
+        invalidateFor(context.request());
+    }
+
+    private void invalidateFor(SdkRequest request) {
+        if (request instanceof PutObjectRequest r) {
+            invalidateObject(r.bucket(), r.key());
+        } else if (request instanceof CopyObjectRequest r) {
+            invalidateObject(r.destinationBucket(), r.destinationKey());
+        } else if (request instanceof CompleteMultipartUploadRequest r) {
+            invalidateObject(r.bucket(), r.key());
+        } else if (request instanceof DeleteObjectRequest r) {
+            invalidateObject(r.bucket(), r.key());
+        } else if (request instanceof DeleteObjectsRequest r) {
+            for (ObjectIdentifier id : r.delete().objects()) {
+                invalidateObject(r.bucket(), id.key());
+            }
+        } else if (request instanceof CreateBucketRequest r) {
+            invalidateBucket(r.bucket());
+        } else if (request instanceof DeleteBucketRequest r) {
+            invalidateBucket(r.bucket());
+        }
+    }
+
+    // key and versionId are null for HeadBucket entries
+    private record Key(String bucket, String key, String versionId) {}
+
+    private record Cached(Object value, long expiresAt) {}
+}
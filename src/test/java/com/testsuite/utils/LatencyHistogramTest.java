@@ -0,0 +1,64 @@
+package com.testsuite.utils;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void PercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        SplittableRandom random = new SplittableRandom(11);
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            // log-uniform from 1 us to ~10 s, like a latency tail
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(10_000_000));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LatencyHistogram snapshot = histogram.snapshot();
+        Assert.assertEquals(snapshot.count(), values.length);
+        Assert.assertEquals(snapshot.max(), values[values.length - 1]);
+        long previous = 0;
+        for (double q : new double[] {0.1, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long reported = snapshot.percentile(q);
+            Assert.assertTrue(reported >= exact && reported <= exact + exact / 60 + 1,
+                    "p" + q + " reported " + reported + " for " + exact);
+            Assert.assertTrue(reported >= previous, "percentiles must not decrease");
+            previous = reported;
+        }
+    }
+
+    @Test
+    public void SmallValuesAreExactAndLargeOnesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 0; v < 128; v++) {
+            histogram.record(v);
+        }
+        Assert.assertEquals(histogram.percentile(0.5), 63);
+        Assert.assertEquals(histogram.percentile(1.0), 127);
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(histogram.max(), LatencyHistogram.MAX_VALUE);
+        Assert.assertEquals(histogram.percentile(0), 0);
+        Assert.assertEquals(histogram.percentile(1.0), LatencyHistogram.MAX_VALUE);
+    }
+
+    @Test
+    public void SnapshotIsIndependentOfLaterRecords() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        LatencyHistogram snapshot = histogram.snapshot();
+        histogram.record(2_000_000);
+        Assert.assertEquals(snapshot.count(), 1);
+        Assert.assertEquals(snapshot.sum(), 1_000);
+        Assert.assertEquals(snapshot.percentile(0.99), 1_000, 1_000 / 60.0);
+        Assert.assertEquals(histogram.count(), 2);
+        Assert.assertEquals(new LatencyHistogram().percentile(0.5), 0);
+    }
+}
@@ -0,0 +1,279 @@
+package com.testsuite.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.testsuite.utils.WorkloadSpec.Operation;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+// Open-loop load generator: requests arrive at the spec's rate whether or not earlier ones have finished,
+// each on its own virtual thread, and latency is taken from the scheduled arrival time. A closed loop
+// (wait for the response, then send the next request) slows down with the system under test and hides
+// exactly the queueing delay a capacity test is meant to find.
+public final class LoadGenerator {
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private final S3Utilities s3;
+
+    public LoadGenerator(S3Utilities s3) {
+        this.s3 = s3;
+    }
+
+    // java ... LoadGenerator <workload.properties> <bucket>, using the client from config.properties
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LoadGenerator <workload.properties> <bucket>");
+            System.exit(2);
+        }
+        try {
+            LoadReport report = new LoadGenerator(S3ClientRegistry.fromConfig()).run(args[1], WorkloadSpec.load(Path.of(args[0])));
+            System.out.print(report.format());
+        } finally {
+            S3ClientRegistry.closeAll();
+        }
+    }
+
+    // writes every key of the key space once, so GET and HEAD find objects from the first request on
+    public void preload(String bucket, WorkloadSpec spec) {
+        byte[] content = FileCreator.createTextContent("load", spec.sizes().maxBytes());
+        Semaphore inFlight = new Semaphore(Config.getInt("s3SeedConcurrency", 64));
+        AtomicLong failed = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < spec.keys(); i++) {
+                int index = i;
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        s3.putObject(bucket, spec.layout().keyFor(index),
+                                Arrays.copyOf(content, spec.sizes().sizeFor(index)), CONTENT_TYPE);
+                    } catch (RuntimeException e) {
+                        if (failed.getAndIncrement() == 0) {
+                            System.err.println("Error preloading " + bucket + ": " + e.getMessage());
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        if (failed.get() > 0) {
+            throw new IllegalStateException(failed.get() + " of " + spec.keys() + " keys could not be preloaded");
+        }
+    }
+
+    public LoadReport run(String bucket, WorkloadSpec spec) {
+        if (spec.preload()) {
+            preload(bucket, spec);
+        }
+        byte[] content = FileCreator.createTextContent("load", spec.sizes().maxBytes());
+        OperationMix mix = new OperationMix(spec.mix());
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation op : mix.operations()) {
+            stats.put(op, new Stats());
+        }
+        ZipfSampler keys = new ZipfSampler(spec.keys(), spec.zipfExponent());
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        Semaphore inFlight = new Semaphore(spec.maxInFlight());
+        double interval = 1e9 / spec.targetRps();
+        long scheduled = 0;
+        long dropped = 0;
+
+        long start = System.nanoTime();
+        long end = start + spec.duration().toNanos();
+        double next = start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (next < end && !Thread.currentThread().isInterrupted()) {
+                long intended = (long) next;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation op = mix.pick(random);
+                long keyIndex = keys.sample(random);
+                long requestIndex = scheduled++;
+                Stats opStats = stats.get(op);
+                // never wait for a slot: blocking here would turn the run back into a closed loop. A dropped
+                // arrival has no latency, so the report marks the percentiles invalid instead
+                if (!inFlight.tryAcquire()) {
+                    opStats.dropped.increment();
+                    dropped++;
+                } else {
+                    executor.execute(() -> {
+                        try {
+                            execute(bucket, spec, op, keyIndex, requestIndex, content, intended, opStats);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                next += spec.poisson() ? -Math.log(1 - random.nextDouble()) * interval : interval;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<Operation, LoadReport.OperationReport> reports = new EnumMap<>(Operation.class);
+        stats.forEach((op, s) -> reports.put(op, s.report()));
+        return new LoadReport(spec.targetRps(), Duration.ofNanos(elapsedNanos), scheduled, dropped, reports);
+    }
+
+    private void execute(String bucket, WorkloadSpec spec, Operation op, long keyIndex, long requestIndex, byte[] content,
+                         long intended, Stats stats) {
+        String key = spec.layout().keyFor(keyIndex);
+        long issued = System.nanoTime();
+        try {
+            switch (op) {
+                case PUT -> s3.putObject(bucket, key,
+                        Arrays.copyOf(content, spec.sizes().sizeFor(spec.keys() + requestIndex)), CONTENT_TYPE);
+                case GET -> {
+                    try (InputStream in = s3.getObjectAsStream(bucket, key)) {
+                        in.transferTo(OutputStream.nullOutputStream());
+                    }
+                }
+                // uncached, or concurrent HEADs of a hot key would collapse into one call that the report counts many times
+                case HEAD -> s3.headObjectUncached(bucket, key);
+                case LIST -> s3.listObjectsWithPrefix(bucket, key.substring(0, key.lastIndexOf('/') + 1));
+                case DELETE -> s3.deleteObject(bucket, key);
+            }
+        } catch (NoSuchKeyException e) {
+            stats.misses.increment();
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == 404 && op != Operation.LIST) {
+                stats.misses.increment();
+            } else {
+                stats.error(e.awsErrorDetails() != null && e.awsErrorDetails().errorCode() != null
+                        ? e.awsErrorDetails().errorCode()
+                        : "HTTP " + e.statusCode());
+            }
+        } catch (IOException | RuntimeException e) {
+            stats.error(e.getClass().getSimpleName());
+        } finally {
+            long done = System.nanoTime();
+            stats.latency.record((done - intended) / 1_000);
+            stats.service.record((done - issued) / 1_000);
+        }
+    }
+
+    private static final class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram service = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> errorCodes = new ConcurrentHashMap<>();
+
+        void error(String code) {
+            errors.increment();
+            errorCodes.computeIfAbsent(code, c -> new LongAdder()).increment();
+        }
+
+        LoadReport.OperationReport report() {
+            LatencyHistogram l = latency.snapshot();
+            LatencyHistogram s = service.snapshot();
+            Map<String, Long> codes = new TreeMap<>();
+            errorCodes.forEach((code, n) -> codes.put(code, n.sum()));
+            return new LoadReport.OperationReport(l.count(), errors.sum(), misses.sum(), dropped.sum(),
+                    l.percentile(0.5), l.percentile(0.9), l.percentile(0.99), l.percentile(0.999), l.max(),
+                    s.percentile(0.5), s.percentile(0.99), codes);
+        }
+    }
+
+    // draws operations in proportion to their weight; zero-weight operations are left out entirely, since
+    // they would otherwise share a cumulative weight with their neighbour and could still be picked
+    static final class OperationMix {
+        private final Operation[] operations;
+        private final int[] cumulative;
+
+        OperationMix(Map<Operation, Integer> weights) {
+            this.operations = weights.entrySet().stream()
+                    .filter(e -> e.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .toArray(Operation[]::new);
+            this.cumulative = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += weights.get(operations[i]);
+                cumulative[i] = total;
+            }
+        }
+
+        Operation[] operations() {
+            return operations.clone();
+        }
+
+        // the first operation whose cumulative weight is above r, with r uniform in [0, total)
+        Operation pick(SplittableRandom random) {
+            int r = random.nextInt(cumulative[cumulative.length - 1]);
+            int lo = 0;
+            int hi = cumulative.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] > r) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return operations[lo];
+        }
+    }
+
+    // rank r (0 = hottest key) is drawn with probability proportional to 1 / (r + 1)^exponent
+    static final class ZipfSampler {
+        private final int keys;
+        private final double[] cdf;
+
+        ZipfSampler(int keys, double exponent) {
+            this.keys = keys;
+            if (exponent == 0) {
+                this.cdf = null;
+                return;
+            }
+            this.cdf = new double[keys];
+            double sum = 0;
+            for (int r = 0; r < keys; r++) {
+                sum += 1 / Math.pow(r + 1, exponent);
+                cdf[r] = sum;
+            }
+            for (int r = 0; r < keys; r++) {
+                cdf[r] /= sum;
+            }
+        }
+
+        long sample(SplittableRandom random) {
+            if (cdf == null) {
+                return random.nextInt(keys);
+            }
+            // the first rank whose cumulative probability is above u; rounding can leave cdf[keys - 1] just below 1
+            double u = random.nextDouble();
+            int lo = 0;
+            int hi = keys - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] > u) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
+}
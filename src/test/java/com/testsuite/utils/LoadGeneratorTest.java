@@ -0,0 +1,75 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import com.testsuite.utils.WorkloadSpec.Operation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void ZeroWeightOperationsAreNeverPicked() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        weights.put(Operation.PUT, 0);
+        weights.put(Operation.GET, 3);
+        weights.put(Operation.HEAD, 0);
+        weights.put(Operation.LIST, 1);
+        weights.put(Operation.DELETE, 0);
+        LoadGenerator.OperationMix mix = new LoadGenerator.OperationMix(weights);
+        Assert.assertEquals(mix.operations(), new Operation[] {Operation.GET, Operation.LIST});
+
+        Map<Operation, Integer> picks = new EnumMap<>(Operation.class);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 40_000; i++) {
+            picks.merge(mix.pick(random), 1, Integer::sum);
+        }
+        Assert.assertEquals(picks.keySet(), Set.of(Operation.GET, Operation.LIST));
+        Assert.assertEquals(picks.get(Operation.GET) / 40_000.0, 0.75, 0.02);
+    }
+
+    @Test
+    public void ZipfSamplerFavoursLowRanksAndStaysInRange() {
+        int keys = 100;
+        LoadGenerator.ZipfSampler zipf = new LoadGenerator.ZipfSampler(keys, 1.1);
+        long[] counts = new long[keys];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            long rank = zipf.sample(random);
+            Assert.assertTrue(rank >= 0 && rank < keys, "rank " + rank);
+            counts[(int) rank]++;
+        }
+        // P(rank 0) / P(rank 1) = 2^1.1
+        Assert.assertEquals((double) counts[0] / counts[1], Math.pow(2, 1.1), 0.15);
+        Assert.assertTrue(counts[0] > counts[9] && counts[9] > counts[99]);
+
+        LoadGenerator.ZipfSampler uniform = new LoadGenerator.ZipfSampler(keys, 0);
+        long[] flat = new long[keys];
+        for (int i = 0; i < 100_000; i++) {
+            flat[(int) uniform.sample(random)]++;
+        }
+        Assert.assertEquals((double) flat[0] / flat[keys - 1], 1.0, 0.3);
+    }
+
+    @Test
+    public void DroppedArrivalsInvalidateLatencyPercentiles() {
+        LoadReport.OperationReport clean = new LoadReport.OperationReport(10, 0, 0, 0, 100, 200, 300, 400, 500, 50, 90, Map.of());
+        LoadReport.OperationReport dropped = new LoadReport.OperationReport(10, 0, 0, 2, 100, 200, 300, 400, 500, 50, 90, Map.of());
+        LoadReport ok = new LoadReport(100, Duration.ofSeconds(1), 10, 0, Map.of(Operation.GET, clean));
+        LoadReport lossy = new LoadReport(100, Duration.ofSeconds(1), 12, 2, Map.of(Operation.GET, clean, Operation.PUT, dropped));
+
+        Assert.assertTrue(ok.latencyValid());
+        Assert.assertFalse(ok.format().contains("n/a"));
+        Assert.assertFalse(lossy.latencyValid());
+        Assert.assertFalse(dropped.latencyValid());
+        String report = lossy.format();
+        Assert.assertTrue(report.contains("invalid"), report);
+        Assert.assertTrue(report.lines().anyMatch(line -> line.startsWith("PUT") && line.contains("n/a")), report);
+        Assert.assertTrue(report.lines().anyMatch(line -> line.startsWith("GET") && !line.contains("n/a")), report);
+    }
+}
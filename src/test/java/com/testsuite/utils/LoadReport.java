@@ -0,0 +1,66 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+// Result of an open-loop run. Latency is measured from each request's scheduled start, so time spent
+// queued behind a slow client or server counts against the request (corrected for coordinated omission);
+// service time is measured from when the call was actually issued. All latencies are in microseconds.
+// Arrivals dropped at the in-flight limit never ran and have no latency, so once any are dropped the
+// percentiles describe only the survivors and understate the tail; they are reported as invalid.
+public record LoadReport(double targetRps, Duration elapsed, long scheduled, long dropped,
+                         Map<WorkloadSpec.Operation, OperationReport> operations) {
+
+    public boolean isSuccessful() {
+        return dropped == 0 && operations.values().stream().allMatch(op -> op.errors() == 0);
+    }
+
+    public boolean latencyValid() {
+        return dropped == 0;
+    }
+
+    public long completed() {
+        return operations.values().stream().mapToLong(OperationReport::calls).sum();
+    }
+
+    public double achievedRps() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0 : completed() * 1000.0 / millis;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                "target %.1f rps, achieved %.1f rps over %d ms, %d scheduled, %d dropped%n",
+                targetRps, achievedRps(), elapsed.toMillis(), scheduled, dropped));
+        if (!latencyValid()) {
+            out.append("latency percentiles are invalid for operations with dropped arrivals (n/a below)")
+                    .append(System.lineSeparator());
+        }
+        out.append(String.format(Locale.ROOT, "%-7s %9s %8s %7s %10s %10s %10s %10s %10s %10s%n",
+                "op", "calls", "errors", "misses", "p50", "p90", "p99", "p99.9", "max", "svc p99"));
+        operations.forEach((op, r) -> out.append(String.format(Locale.ROOT,
+                "%-7s %9d %7.2f%% %7d %10s %10s %10s %10s %10s %10d%n", op, r.calls(), r.errorRate() * 100,
+                r.misses(), latency(r, r.p50Micros()), latency(r, r.p90Micros()), latency(r, r.p99Micros()),
+                latency(r, r.p999Micros()), latency(r, r.maxMicros()), r.serviceP99Micros())));
+        return out.toString();
+    }
+
+    private static String latency(OperationReport r, long micros) {
+        return r.latencyValid() ? Long.toString(micros) : "n/a";
+    }
+
+    // misses are GET/HEAD calls for a key a DELETE already removed; they are expected, not errors
+    public record OperationReport(long calls, long errors, long misses, long dropped, long p50Micros, long p90Micros,
+                                  long p99Micros, long p999Micros, long maxMicros, long serviceP50Micros,
+                                  long serviceP99Micros, Map<String, Long> errorCodes) {
+
+        public double errorRate() {
+            return calls == 0 ? 0 : (double) errors / calls;
+        }
+
+        public boolean latencyValid() {
+            return dropped == 0;
+        }
+    }
+}
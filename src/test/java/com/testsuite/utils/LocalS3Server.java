@@ -0,0 +1,1446 @@
+package com.testsuite.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// In-process S3 stand-in for offline and performance runs, reached through a path-style endpoint
+// override (s3Endpoint). Everything lives in memory and signatures are not checked. It covers what the
+// suite uses: buckets and their configuration documents, objects with metadata, ranges, conditional
+// reads, copies, tagging, versioning with delete markers, batch deletes, multipart uploads and flexible
+// checksums. Latency, a per-request bandwidth cap and 503 SlowDown throttling can be injected.
+public final class LocalS3Server implements AutoCloseable {
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int IO_CHUNK = 64 * 1024;
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final Set<String> LIST_PARAMS = Set.of("prefix", "delimiter", "marker", "max-keys", "encoding-type");
+    private static final List<String> CHECKSUMS = List.of("CRC32", "CRC32C", "SHA1", "SHA256");
+    // bucket subresources stored as opaque documents, with the error S3 returns when one is missing
+    private static final Map<String, String> DOCUMENTS = Map.of(
+            "cors", "NoSuchCORSConfiguration",
+            "website", "NoSuchWebsiteConfiguration",
+            "lifecycle", "NoSuchLifecycleConfiguration",
+            "policy", "NoSuchBucketPolicy",
+            "tagging", "NoSuchTagSet",
+            "encryption", "ServerSideEncryptionConfigurationNotFoundError",
+            "publicAccessBlock", "NoSuchPublicAccessBlockConfiguration",
+            "ownershipControls", "OwnershipControlsNotFoundError",
+            "object-lock", "ObjectLockConfigurationNotFoundError");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final Set<InetSocketAddress> clients = ConcurrentHashMap.newKeySet();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration latencyJitter = Duration.ZERO;
+    private volatile long bytesPerSecond;
+    private volatile double throttleProbability;
+    private volatile int maxRequestsPerSecond;
+    private long windowSecond;
+    private int windowRequests;
+
+    public LocalS3Server() throws IOException {
+        this(0);
+    }
+
+    public LocalS3Server(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    // fixed delay plus a uniformly distributed extra of up to jitter before every response
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latency = latency == null ? Duration.ZERO : latency;
+        this.latencyJitter = jitter == null ? Duration.ZERO : jitter;
+    }
+
+    // caps each request and response body at bytesPerSecond; 0 disables the cap
+    public void setBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+    }
+
+    // rejects the given fraction of requests, and every request above maxRequestsPerSecond, with 503 SlowDown
+    public void setThrottling(double probability, int maxRequestsPerSecond) {
+        this.throttleProbability = Math.max(0, Math.min(1, probability));
+        this.maxRequestsPerSecond = Math.max(0, maxRequestsPerSecond);
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    // distinct client sockets seen so far; stays flat while callers reuse pooled keep-alive connections
+    public int connectionCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Request request = null;
+        try {
+            requests.incrementAndGet();
+            clients.add(exchange.getRemoteAddress());
+            delay();
+            if (throttle()) {
+                throttled.incrementAndGet();
+                drain(exchange.getRequestBody());
+                throw new S3Error(503, "SlowDown", "Please reduce your request rate.");
+            }
+            request = new Request(exchange, readBody(exchange));
+            route(request);
+        } catch (S3Error e) {
+            if (request != null) {
+                request.headers.forEach(exchange.getResponseHeaders()::set);
+            }
+            sendError(exchange, e);
+        } catch (RuntimeException e) {
+            sendError(exchange, new S3Error(500, "InternalError", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(Request r) throws IOException {
+        String path = r.exchange.getRequestURI().getPath();
+        String rest = path.startsWith("/") ? path.substring(1) : path;
+        if (rest.isEmpty()) {
+            if (!r.method.equals("GET")) {
+                throw new S3Error(405, "MethodNotAllowed", "The specified method is not allowed against this resource.");
+            }
+            listBuckets(r);
+            return;
+        }
+        int slash = rest.indexOf('/');
+        String bucket = slash < 0 ? rest : rest.substring(0, slash);
+        String key = slash < 0 || slash == rest.length() - 1 ? null : rest.substring(slash + 1);
+        if (key == null) {
+            bucketRequest(r, bucket);
+        } else {
+            objectRequest(r, bucket(bucket), key);
+        }
+    }
+
+    // ---- buckets
+
+    private void listBuckets(Request r) throws IOException {
+        StringBuilder xml = xmlStart("ListAllMyBucketsResult").append("<Owner><ID>local</ID><DisplayName>local</DisplayName></Owner><Buckets>");
+        new TreeMap<>(buckets).forEach((name, b) -> xml.append("<Bucket>").append(tag("Name", name))
+                .append(tag("CreationDate", iso(b.created))).append("</Bucket>"));
+        xml.append("</Buckets></ListAllMyBucketsResult>");
+        sendXml(r, 200, xml);
+    }
+
+    private void bucketRequest(Request r, String name) throws IOException {
+        switch (r.method) {
+            case "PUT" -> {
+                if (r.params.isEmpty()) {
+                    if (buckets.putIfAbsent(name, new Bucket(name)) != null) {
+                        throw new S3Error(409, "BucketAlreadyOwnedByYou", "Your previous request to create the named bucket succeeded and you already own it.");
+                    }
+                    r.header("Location", "/" + name);
+                    send(r, 200, null, null);
+                    return;
+                }
+                putBucketSubresource(r, bucket(name));
+            }
+            case "HEAD" -> {
+                bucket(name);
+                send(r, 200, null, null);
+            }
+            case "DELETE" -> {
+                Bucket b = bucket(name);
+                if (r.params.isEmpty()) {
+                    synchronized (b) {
+                        if (!b.objects.isEmpty()) {
+                            throw new S3Error(409, "BucketNotEmpty", "The bucket you tried to delete is not empty");
+                        }
+                        buckets.remove(name, b);
+                    }
+                    uploads.values().removeIf(u -> u.bucket.equals(name));
+                } else {
+                    String sub = subresource(r);
+                    synchronized (b) {
+                        b.documents.remove(sub);
+                    }
+                }
+                send(r, 204, null, null);
+            }
+            case "GET" -> getBucket(r, bucket(name));
+            case "POST" -> {
+                if (!r.params.containsKey("delete")) {
+                    throw new S3Error(400, "InvalidRequest", "Unsupported bucket POST");
+                }
+                deleteObjects(r, bucket(name));
+            }
+            default -> throw new S3Error(405, "MethodNotAllowed", "The specified method is not allowed against this resource.");
+        }
+    }
+
+    private void putBucketSubresource(Request r, Bucket b) throws IOException {
+        String sub = subresource(r);
+        synchronized (b) {
+            switch (sub) {
+                case "versioning" -> {
+                    String status = text(parse(r.body).getDocumentElement(), "Status");
+                    if (!"Enabled".equals(status) && !"Suspended".equals(status)) {
+                        throw new S3Error(400, "MalformedXML", "Unknown versioning status " + status);
+                    }
+                    b.versioning = status;
+                }
+                case "acl" -> b.documents.put("acl", r.body.length > 0 ? r.body
+                        : String.valueOf(r.exchange.getRequestHeaders().getFirst("x-amz-acl")).getBytes(StandardCharsets.UTF_8));
+                default -> b.documents.put(sub, r.body);
+            }
+        }
+        send(r, 200, null, null);
+    }
+
+    private void getBucket(Request r, Bucket b) throws IOException {
+        if (r.params.containsKey("list-type")) {
+            listObjects(r, b, true);
+        } else if (r.params.containsKey("versions")) {
+            listVersions(r, b);
+        } else if (r.params.containsKey("uploads")) {
+            listUploads(r, b);
+        } else if (r.params.containsKey("versioning")) {
+            String status = b.versioning;
+            sendXml(r, 200, xmlStart("VersioningConfiguration").append(status == null ? "" : tag("Status", status))
+                    .append("</VersioningConfiguration>"));
+        } else if (r.params.containsKey("location")) {
+            sendXml(r, 200, xmlStart("LocationConstraint").append("</LocationConstraint>"));
+        } else if (r.params.containsKey("acl")) {
+            sendXml(r, 200, xmlStart("AccessControlPolicy").append("<Owner><ID>local</ID><DisplayName>local</DisplayName></Owner>")
+                    .append("<AccessControlList><Grant><Grantee xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:type=\"CanonicalUser\">")
+                    .append("<ID>local</ID><DisplayName>local</DisplayName></Grantee><Permission>FULL_CONTROL</Permission></Grant>")
+                    .append("</AccessControlList></AccessControlPolicy>"));
+        } else if (r.params.containsKey("logging")) {
+            byte[] doc;
+            synchronized (b) {
+                doc = b.documents.get("logging");
+            }
+            if (doc == null) {
+                sendXml(r, 200, xmlStart("BucketLoggingStatus").append("</BucketLoggingStatus>"));
+            } else {
+                send(r, 200, "application/xml", doc);
+            }
+        } else if (r.params.isEmpty() || LIST_PARAMS.containsAll(r.params.keySet())) {
+            listObjects(r, b, false);
+        } else {
+            String sub = subresource(r);
+            byte[] doc;
+            synchronized (b) {
+                doc = b.documents.get(sub);
+            }
+            if (doc == null) {
+                throw new S3Error(404, DOCUMENTS.getOrDefault(sub, "NoSuchConfiguration"), "The " + sub + " configuration does not exist");
+            }
+            send(r, 200, sub.equals("policy") ? "application/json" : "application/xml", doc);
+        }
+    }
+
+    private void listObjects(Request r, Bucket b, boolean v2) throws IOException {
+        String prefix = r.params.getOrDefault("prefix", "");
+        String delimiter = r.params.get("delimiter");
+        int maxKeys = Integer.parseInt(r.params.getOrDefault("max-keys", "1000"));
+        boolean urlEncode = "url".equals(r.params.get("encoding-type"));
+        String token = r.params.get("continuation-token");
+        String after = v2
+                ? (token != null ? new String(Base64.getDecoder().decode(token), StandardCharsets.UTF_8) : r.params.getOrDefault("start-after", ""))
+                : r.params.getOrDefault("marker", "");
+
+        List<Version> contents = new ArrayList<>();
+        TreeSet<String> prefixes = new TreeSet<>();
+        String last = null;
+        boolean truncated = false;
+        synchronized (b) {
+            // keys under the prefix are contiguous: start at the later of marker and prefix, stop once past it
+            SortedMap<String, LinkedList<Version>> range = prefix.compareTo(after) > 0
+                    ? b.objects.tailMap(prefix, true)
+                    : b.objects.tailMap(after, false);
+            for (Map.Entry<String, LinkedList<Version>> entry : range.entrySet()) {
+                String key = entry.getKey();
+                if (!key.startsWith(prefix)) {
+                    break;
+                }
+                Version latest = entry.getValue().getFirst();
+                if (latest.deleteMarker) {
+                    continue;
+                }
+                String common = null;
+                if (delimiter != null && !delimiter.isEmpty()) {
+                    int at = key.indexOf(delimiter, prefix.length());
+                    if (at >= 0) {
+                        common = key.substring(0, at + delimiter.length());
+                    }
+                }
+                if (common != null && prefixes.contains(common)) {
+                    last = key;
+                    continue;
+                }
+                if (contents.size() + prefixes.size() >= maxKeys) {
+                    truncated = true;
+                    break;
+                }
+                if (common != null) {
+                    prefixes.add(common);
+                } else {
+                    contents.add(latest);
+                }
+                last = key;
+            }
+        }
+
+        StringBuilder xml = xmlStart("ListBucketResult").append(tag("Name", b.name)).append(tag("Prefix", encode(prefix, urlEncode)))
+                .append(tag("MaxKeys", maxKeys)).append(tag("IsTruncated", truncated));
+        if (delimiter != null) {
+            xml.append(tag("Delimiter", encode(delimiter, urlEncode)));
+        }
+        if (urlEncode) {
+            xml.append(tag("EncodingType", "url"));
+        }
+        if (v2) {
+            xml.append(tag("KeyCount", contents.size() + prefixes.size()));
+            if (token != null) {
+                xml.append(tag("ContinuationToken", token));
+            }
+            if (r.params.containsKey("start-after")) {
+                xml.append(tag("StartAfter", encode(r.params.get("start-after"), urlEncode)));
+            }
+            if (truncated) {
+                xml.append(tag("NextContinuationToken", Base64.getEncoder().encodeToString(last.getBytes(StandardCharsets.UTF_8))));
+            }
+        } else {
+            xml.append(tag("Marker", encode(r.params.getOrDefault("marker", ""), urlEncode)));
+            if (truncated && delimiter != null) {
+                xml.append(tag("NextMarker", encode(last, urlEncode)));
+            }
+        }
+        for (Version v : contents) {
+            xml.append("<Contents>").append(tag("Key", encode(v.key, urlEncode))).append(tag("LastModified", iso(v.lastModified)))
+                    .append(tag("ETag", quote(v.etag))).append(tag("Size", v.data.length))
+                    .append(tag("StorageClass", v.storageClass)).append("</Contents>");
+        }
+        for (String p : prefixes) {
+            xml.append("<CommonPrefixes>").append(tag("Prefix", encode(p, urlEncode))).append("</CommonPrefixes>");
+        }
+        sendXml(r, 200, xml.append("</ListBucketResult>"));
+    }
+
+    private void listVersions(Request r, Bucket b) throws IOException {
+        String prefix = r.params.getOrDefault("prefix", "");
+        int maxKeys = Integer.parseInt(r.params.getOrDefault("max-keys", "1000"));
+        String keyMarker = r.params.getOrDefault("key-marker", "");
+        String versionMarker = r.params.get("version-id-marker");
+        boolean urlEncode = "url".equals(r.params.get("encoding-type"));
+
+        List<Version> page = new ArrayList<>();
+        boolean truncated = false;
+        synchronized (b) {
+            // with a version marker the listing resumes inside key-marker's versions, otherwise after that key
+            boolean inclusive = versionMarker != null && !versionMarker.isEmpty();
+            SortedMap<String, LinkedList<Version>> range = prefix.compareTo(keyMarker) > 0
+                    ? b.objects.tailMap(prefix, true)
+                    : b.objects.tailMap(keyMarker, inclusive);
+            outer:
+            for (Map.Entry<String, LinkedList<Version>> entry : range.entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+                boolean skipping = inclusive && entry.getKey().equals(keyMarker);
+                for (Version v : entry.getValue()) {
+                    if (skipping) {
+                        skipping = !v.versionId.equals(versionMarker);
+                        continue;
+                    }
+                    if (page.size() == maxKeys) {
+                        truncated = true;
+                        break outer;
+                    }
+                    page.add(v);
+                }
+            }
+        }
+
+        StringBuilder xml = xmlStart("ListVersionsResult").append(tag("Name", b.name)).append(tag("Prefix", encode(prefix, urlEncode)))
+                .append(tag("KeyMarker", encode(keyMarker, urlEncode))).append(tag("VersionIdMarker", versionMarker == null ? "" : versionMarker))
+                .append(tag("MaxKeys", maxKeys)).append(tag("IsTruncated", truncated));
+        if (urlEncode) {
+            xml.append(tag("EncodingType", "url"));
+        }
+        if (truncated) {
+            Version last = page.get(page.size() - 1);
+            xml.append(tag("NextKeyMarker", encode(last.key, urlEncode))).append(tag("NextVersionIdMarker", last.versionId));
+        }
+        synchronized (b) {
+            for (Version v : page) {
+                boolean latest = b.objects.get(v.key) != null && b.objects.get(v.key).getFirst() == v;
+                if (v.deleteMarker) {
+                    xml.append("<DeleteMarker>").append(tag("Key", encode(v.key, urlEncode))).append(tag("VersionId", v.versionId))
+                            .append(tag("IsLatest", latest)).append(tag("LastModified", iso(v.lastModified))).append("</DeleteMarker>");
+                } else {
+                    xml.append("<Version>").append(tag("Key", encode(v.key, urlEncode))).append(tag("VersionId", v.versionId))
+                            .append(tag("IsLatest", latest)).append(tag("LastModified", iso(v.lastModified)))
+                            .append(tag("ETag", quote(v.etag))).append(tag("Size", v.data.length))
+                            .append(tag("StorageClass", v.storageClass)).append("</Version>");
+                }
+            }
+        }
+        sendXml(r, 200, xml.append("</ListVersionsResult>"));
+    }
+
+    private void listUploads(Request r, Bucket b) throws IOException {
+        String prefix = r.params.getOrDefault("prefix", "");
+        StringBuilder xml = xmlStart("ListMultipartUploadsResult").append(tag("Bucket", b.name)).append(tag("IsTruncated", false));
+        uploads.values().stream()
+                .filter(u -> u.bucket.equals(b.name) && u.key.startsWith(prefix))
+                .sorted((x, y) -> x.key.equals(y.key) ? x.initiated.compareTo(y.initiated) : x.key.compareTo(y.key))
+                .forEach(u -> xml.append("<Upload>").append(tag("Key", u.key)).append(tag("UploadId", u.id))
+                        .append(tag("Initiated", iso(u.initiated))).append(tag("StorageClass", u.template.storageClass)).append("</Upload>"));
+        sendXml(r, 200, xml.append("</ListMultipartUploadsResult>"));
+    }
+
+    private void deleteObjects(Request r, Bucket b) throws IOException {
+        Element root = parse(r.body).getDocumentElement();
+        boolean quiet = "true".equalsIgnoreCase(text(root, "Quiet"));
+        StringBuilder xml = xmlStart("DeleteResult");
+        NodeList objects = root.getElementsByTagName("Object");
+        for (int i = 0; i < objects.getLength(); i++) {
+            Element object = (Element) objects.item(i);
+            String key = text(object, "Key");
+            String versionId = text(object, "VersionId");
+            Version result = delete(b, key, versionId);
+            if (!quiet) {
+                xml.append("<Deleted>").append(tag("Key", key));
+                if (versionId != null) {
+                    xml.append(tag("VersionId", versionId));
+                }
+                if (result != null && result.deleteMarker) {
+                    xml.append(tag("DeleteMarker", true)).append(tag("DeleteMarkerVersionId", result.versionId));
+                }
+                xml.append("</Deleted>");
+            }
+        }
+        sendXml(r, 200, xml.append("</DeleteResult>"));
+    }
+
+    // ---- objects
+
+    private void objectRequest(Request r, Bucket b, String key) throws IOException {
+        String uploadId = r.params.get("uploadId");
+        switch (r.method) {
+            case "PUT" -> {
+                if (uploadId != null) {
+                    uploadPart(r, b, key, upload(uploadId, b, key));
+                } else if (r.params.containsKey("tagging")) {
+                    Version v = find(b, key, r.params.get("versionId"));
+                    Map<String, String> tags = parseTags(r.body);
+                    synchronized (b) {
+                        v.tags = tags;
+                    }
+                    versionHeader(r, b, v);
+                    send(r, 200, null, null);
+                } else if (r.exchange.getRequestHeaders().containsKey("x-amz-copy-source")) {
+                    copyObject(r, b, key);
+                } else {
+                    Version v = newVersion(r, key, r.body);
+                    store(b, v);
+                    r.header("ETag", quote(v.etag));
+                    v.checksums.forEach((alg, value) -> r.header("x-amz-checksum-" + alg.toLowerCase(Locale.ROOT), value));
+                    sseHeader(r, v);
+                    versionHeader(r, b, v);
+                    send(r, 200, null, null);
+                }
+            }
+            case "GET", "HEAD" -> {
+                if (uploadId != null) {
+                    listParts(r, upload(uploadId, b, key));
+                } else if (r.params.containsKey("tagging")) {
+                    Version v = find(b, key, r.params.get("versionId"));
+                    StringBuilder xml = xmlStart("Tagging").append("<TagSet>");
+                    synchronized (b) {
+                        v.tags.forEach((k, val) -> xml.append("<Tag>").append(tag("Key", k)).append(tag("Value", val)).append("</Tag>"));
+                    }
+                    versionHeader(r, b, v);
+                    sendXml(r, 200, xml.append("</TagSet></Tagging>"));
+                } else {
+                    getObject(r, b, key);
+                }
+            }
+            case "DELETE" -> {
+                if (uploadId != null) {
+                    uploads.remove(upload(uploadId, b, key).id);
+                    send(r, 204, null, null);
+                } else if (r.params.containsKey("tagging")) {
+                    Version v = find(b, key, r.params.get("versionId"));
+                    synchronized (b) {
+                        v.tags = new LinkedHashMap<>();
+                    }
+                    send(r, 204, null, null);
+                } else {
+                    String versionId = r.params.get("versionId");
+                    Version result = delete(b, key, versionId);
+                    if (result != null && result.deleteMarker) {
+                        r.header("x-amz-delete-marker", "true");
+                    }
+                    if (result != null && !"null".equals(result.versionId) || versionId != null) {
+                        r.header("x-amz-version-id", versionId != null ? versionId : result.versionId);
+                    }
+                    send(r, 204, null, null);
+                }
+            }
+            case "POST" -> {
+                if (r.params.containsKey("uploads")) {
+                    Upload upload = new Upload(b.name, key, newVersion(r, key, new byte[0]));
+                    uploads.put(upload.id, upload);
+                    r.header("x-amz-checksum-algorithm", r.exchange.getRequestHeaders().getFirst("x-amz-checksum-algorithm"));
+                    sendXml(r, 200, xmlStart("InitiateMultipartUploadResult").append(tag("Bucket", b.name))
+                            .append(tag("Key", key)).append(tag("UploadId", upload.id)).append("</InitiateMultipartUploadResult>"));
+                } else if (uploadId != null) {
+                    completeUpload(r, b, upload(uploadId, b, key));
+                } else {
+                    throw new S3Error(400, "InvalidRequest", "Unsupported object POST");
+                }
+            }
+            default -> throw new S3Error(405, "MethodNotAllowed", "The specified method is not allowed against this resource.");
+        }
+    }
+
+    private void getObject(Request r, Bucket b, String key) throws IOException {
+        String versionId = r.params.get("versionId");
+        Version v;
+        synchronized (b) {
+            LinkedList<Version> versions = b.objects.get(key);
+            if (versionId == null) {
+                v = versions == null ? null : versions.getFirst();
+                if (v == null || v.deleteMarker) {
+                    if (v != null) {
+                        r.header("x-amz-delete-marker", "true");
+                    }
+                    throw new S3Error(404, "NoSuchKey", "The specified key does not exist.");
+                }
+            } else {
+                v = versions == null ? null : versions.stream().filter(x -> x.versionId.equals(versionId)).findFirst().orElse(null);
+                if (v == null) {
+                    throw new S3Error(404, "NoSuchVersion", "The specified version does not exist.");
+                }
+                if (v.deleteMarker) {
+                    r.header("x-amz-delete-marker", "true");
+                    throw new S3Error(405, "MethodNotAllowed", "The specified method is not allowed against this resource.");
+                }
+            }
+        }
+        Headers in = r.exchange.getRequestHeaders();
+        String ifMatch = in.getFirst("If-Match");
+        String ifNoneMatch = in.getFirst("If-None-Match");
+        Instant modified = v.lastModified.truncatedTo(ChronoUnit.SECONDS);
+        if (ifMatch != null && !etagMatches(ifMatch, v.etag)) {
+            throw new S3Error(412, "PreconditionFailed", "At least one of the pre-conditions you specified did not hold");
+        }
+        Instant unmodifiedSince = httpDate(in.getFirst("If-Unmodified-Since"));
+        if (ifMatch == null && unmodifiedSince != null && modified.isAfter(unmodifiedSince)) {
+            throw new S3Error(412, "PreconditionFailed", "At least one of the pre-conditions you specified did not hold");
+        }
+        objectHeaders(r, b, v);
+        Instant modifiedSince = httpDate(in.getFirst("If-Modified-Since"));
+        if (ifNoneMatch != null ? etagMatches(ifNoneMatch, v.etag) : modifiedSince != null && !modified.isAfter(modifiedSince)) {
+            send(r, 304, null, null);
+            return;
+        }
+
+        long size = v.data.length;
+        long start = 0;
+        long end = size - 1;
+        boolean partial = false;
+        String partNumber = r.params.get("partNumber");
+        String range = in.getFirst("Range");
+        if (partNumber != null) {
+            int part = Integer.parseInt(partNumber);
+            long[] parts = v.partSizes == null ? new long[] {size} : v.partSizes;
+            if (part < 1 || part > parts.length) {
+                throw new S3Error(416, "InvalidPartNumber", "The requested partnumber is not satisfiable");
+            }
+            for (int i = 0; i < part - 1; i++) {
+                start += parts[i];
+            }
+            end = start + parts[part - 1] - 1;
+            partial = v.partSizes != null;
+            r.header("x-amz-mp-parts-count", Integer.toString(parts.length));
+        } else if (range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring(6).split("-", 2);
+            if (bounds[0].isEmpty()) {
+                start = Math.max(0, size - Long.parseLong(bounds[1]));
+            } else {
+                start = Long.parseLong(bounds[0]);
+                if (!bounds[1].isEmpty()) {
+                    end = Math.min(end, Long.parseLong(bounds[1]));
+                }
+            }
+            if (start >= size || start > end) {
+                r.header("Content-Range", "bytes */" + size);
+                throw new S3Error(416, "InvalidRange", "The requested range is not satisfiable");
+            }
+            partial = true;
+        }
+        if (partial) {
+            r.header("Content-Range", "bytes " + start + "-" + end + "/" + size);
+        } else if ("ENABLED".equalsIgnoreCase(in.getFirst("x-amz-checksum-mode"))) {
+            v.checksums.forEach((alg, value) -> r.header("x-amz-checksum-" + alg.toLowerCase(Locale.ROOT), value));
+        }
+        sendRange(r, partial ? 206 : 200, v.contentType, v.data, (int) start, (int) (end - start + 1));
+    }
+
+    private void copyObject(Request r, Bucket b, String key) throws IOException {
+        Version source = copySource(r);
+        Headers in = r.exchange.getRequestHeaders();
+        Version copy = source.copyAs(key);
+        if ("REPLACE".equalsIgnoreCase(in.getFirst("x-amz-metadata-directive"))) {
+            Version replacement = newVersion(r, key, source.data);
+            copy.metadata = replacement.metadata;
+            copy.contentType = replacement.contentType;
+            copy.contentEncoding = replacement.contentEncoding;
+        }
+        if (in.containsKey("x-amz-storage-class")) {
+            copy.storageClass = in.getFirst("x-amz-storage-class");
+        }
+        if ("REPLACE".equalsIgnoreCase(in.getFirst("x-amz-tagging-directive"))) {
+            copy.tags = parseTagHeader(in.getFirst("x-amz-tagging"));
+        }
+        String algorithm = in.getFirst("x-amz-checksum-algorithm");
+        if (algorithm != null && !copy.checksums.containsKey(algorithm.toUpperCase(Locale.ROOT))) {
+            copy.checksums.put(algorithm.toUpperCase(Locale.ROOT), checksum(algorithm.toUpperCase(Locale.ROOT), copy.data, 0, copy.data.length));
+        }
+        store(b, copy);
+        versionHeader(r, b, copy);
+        sendXml(r, 200, xmlStart("CopyObjectResult").append(tag("ETag", quote(copy.etag)))
+                .append(tag("LastModified", iso(copy.lastModified))).append("</CopyObjectResult>"));
+    }
+
+    private void uploadPart(Request r, Bucket b, String key, Upload upload) throws IOException {
+        int partNumber = Integer.parseInt(r.params.getOrDefault("partNumber", "0"));
+        if (partNumber < 1 || partNumber > 10_000) {
+            throw new S3Error(400, "InvalidArgument", "Part number must be an integer between 1 and 10000, inclusive");
+        }
+        Headers in = r.exchange.getRequestHeaders();
+        Part part;
+        if (in.containsKey("x-amz-copy-source")) {
+            Version source = copySource(r);
+            int start = 0;
+            int length = source.data.length;
+            String range = in.getFirst("x-amz-copy-source-range");
+            if (range != null && range.startsWith("bytes=")) {
+                String[] bounds = range.substring(6).split("-", 2);
+                start = Integer.parseInt(bounds[0]);
+                length = Integer.parseInt(bounds[1]) - start + 1;
+                if (start + length > source.data.length) {
+                    throw new S3Error(400, "InvalidArgument", "Range specified is not valid for source object");
+                }
+            }
+            part = new Part(partNumber, Arrays.copyOfRange(source.data, start, start + length), Map.of());
+        } else {
+            part = new Part(partNumber, r.body, checksums(r, r.body));
+        }
+        synchronized (upload) {
+            upload.parts.put(partNumber, part);
+        }
+        if (in.containsKey("x-amz-copy-source")) {
+            sendXml(r, 200, xmlStart("CopyPartResult").append(tag("ETag", quote(part.etag)))
+                    .append(tag("LastModified", iso(part.lastModified))).append("</CopyPartResult>"));
+            return;
+        }
+        r.header("ETag", quote(part.etag));
+        part.checksums.forEach((alg, value) -> r.header("x-amz-checksum-" + alg.toLowerCase(Locale.ROOT), value));
+        send(r, 200, null, null);
+    }
+
+    private void listParts(Request r, Upload upload) throws IOException {
+        int marker = Integer.parseInt(r.params.getOrDefault("part-number-marker", "0"));
+        int maxParts = Integer.parseInt(r.params.getOrDefault("max-parts", "1000"));
+        List<Part> parts;
+        synchronized (upload) {
+            parts = new ArrayList<>(upload.parts.tailMap(marker, false).values());
+        }
+        boolean truncated = parts.size() > maxParts;
+        if (truncated) {
+            parts = parts.subList(0, maxParts);
+        }
+        StringBuilder xml = xmlStart("ListPartsResult").append(tag("Bucket", upload.bucket)).append(tag("Key", upload.key))
+                .append(tag("UploadId", upload.id)).append(tag("PartNumberMarker", marker)).append(tag("MaxParts", maxParts))
+                .append(tag("IsTruncated", truncated)).append(tag("StorageClass", upload.template.storageClass));
+        if (truncated) {
+            xml.append(tag("NextPartNumberMarker", parts.get(parts.size() - 1).number));
+        }
+        for (Part p : parts) {
+            xml.append("<Part>").append(tag("PartNumber", p.number)).append(tag("LastModified", iso(p.lastModified)))
+                    .append(tag("ETag", quote(p.etag))).append(tag("Size", p.data.length));
+            p.checksums.forEach((alg, value) -> xml.append(tag("Checksum" + alg, value)));
+            xml.append("</Part>");
+        }
+        sendXml(r, 200, xml.append("</ListPartsResult>"));
+    }
+
+    private void completeUpload(Request r, Bucket b, Upload upload) throws IOException {
+        NodeList requested = parse(r.body).getDocumentElement().getElementsByTagName("Part");
+        List<Part> parts = new ArrayList<>();
+        synchronized (upload) {
+            int previous = 0;
+            for (int i = 0; i < requested.getLength(); i++) {
+                Element e = (Element) requested.item(i);
+                int number = Integer.parseInt(text(e, "PartNumber"));
+                Part part = upload.parts.get(number);
+                String etag = text(e, "ETag");
+                if (part == null || etag == null || !etagMatches(etag, part.etag)) {
+                    throw new S3Error(400, "InvalidPart", "One or more of the specified parts could not be found.");
+                }
+                if (number <= previous) {
+                    throw new S3Error(400, "InvalidPartOrder", "The list of parts was not in ascending order.");
+                }
+                previous = number;
+                parts.add(part);
+            }
+        }
+        if (parts.isEmpty()) {
+            throw new S3Error(400, "MalformedXML", "The XML you provided was not well-formed");
+        }
+        for (int i = 0; i < parts.size() - 1; i++) {
+            if (parts.get(i).data.length < MIN_PART_SIZE) {
+                throw new S3Error(400, "EntityTooSmall", "Your proposed upload is smaller than the minimum allowed object size.");
+            }
+        }
+        long length = parts.stream().mapToLong(p -> p.data.length).sum();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new S3Error(400, "EntityTooLarge", "Your proposed upload exceeds the maximum allowed object size.");
+        }
+        // parts are copied once into an array of the final size
+        byte[] data = new byte[(int) length];
+        MessageDigest etags = md5();
+        long[] sizes = new long[parts.size()];
+        int offset = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            Part p = parts.get(i);
+            System.arraycopy(p.data, 0, data, offset, p.data.length);
+            offset += p.data.length;
+            etags.update(HexFormat.of().parseHex(p.etag));
+            sizes[i] = p.data.length;
+        }
+        Version v = upload.template.copyAs(upload.key);
+        v.data = data;
+        v.etag = HexFormat.of().formatHex(etags.digest()) + "-" + parts.size();
+        v.partSizes = sizes;
+        v.checksums = new LinkedHashMap<>();
+        // composite checksum: the checksum of the concatenated part checksums, suffixed with the part count
+        for (String alg : CHECKSUMS) {
+            if (parts.stream().allMatch(p -> p.checksums.containsKey(alg))) {
+                ByteArrayOutputStream combined = new ByteArrayOutputStream();
+                parts.forEach(p -> combined.writeBytes(Base64.getDecoder().decode(p.checksums.get(alg))));
+                byte[] raw = combined.toByteArray();
+                v.checksums.put(alg, checksum(alg, raw, 0, raw.length) + "-" + parts.size());
+            }
+        }
+        store(b, v);
+        uploads.remove(upload.id);
+        versionHeader(r, b, v);
+        StringBuilder xml = xmlStart("CompleteMultipartUploadResult").append(tag("Location", "/" + b.name + "/" + upload.key))
+                .append(tag("Bucket", b.name)).append(tag("Key", upload.key)).append(tag("ETag", quote(v.etag)));
+        v.checksums.forEach((alg, value) -> xml.append(tag("Checksum" + alg, value)));
+        sendXml(r, 200, xml.append("</CompleteMultipartUploadResult>"));
+    }
+
+    // ---- storage
+
+    private Version newVersion(Request r, String key, byte[] data) {
+        Headers in = r.exchange.getRequestHeaders();
+        Version v = new Version(key, data);
+        v.contentType = in.getFirst("Content-Type") == null ? "binary/octet-stream" : in.getFirst("Content-Type");
+        String encoding = in.getFirst("Content-Encoding");
+        if (encoding != null) {
+            String stripped = Arrays.stream(encoding.split(",")).map(String::trim)
+                    .filter(e -> !e.isEmpty() && !e.equalsIgnoreCase("aws-chunked")).reduce((x, y) -> x + "," + y).orElse(null);
+            v.contentEncoding = stripped;
+        }
+        in.forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("x-amz-meta-")) {
+                v.metadata.put(lower.substring("x-amz-meta-".length()), values.get(0));
+            }
+        });
+        if (in.containsKey("x-amz-storage-class")) {
+            v.storageClass = in.getFirst("x-amz-storage-class");
+        }
+        v.sse = in.getFirst("x-amz-server-side-encryption");
+        v.tags = parseTagHeader(in.getFirst("x-amz-tagging"));
+        if (!r.method.equals("POST")) {
+            v.checksums = checksums(r, data);
+        }
+        return v;
+    }
+
+    // verifies Content-MD5 and any x-amz-checksum-* header or trailer, then returns the checksums to store
+    private Map<String, String> checksums(Request r, byte[] data) {
+        Headers in = r.exchange.getRequestHeaders();
+        String contentMd5 = in.getFirst("Content-MD5");
+        if (contentMd5 != null && !contentMd5.equals(Base64.getEncoder().encodeToString(md5().digest(data)))) {
+            throw new S3Error(400, "BadDigest", "The Content-MD5 you specified did not match what we received.");
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String alg : CHECKSUMS) {
+            String name = "x-amz-checksum-" + alg.toLowerCase(Locale.ROOT);
+            String expected = r.trailers.getOrDefault(name, in.getFirst(name));
+            if (expected != null) {
+                String actual = checksum(alg, data, 0, data.length);
+                if (!actual.equals(expected)) {
+                    throw new S3Error(400, "BadDigest", "The " + alg + " you specified did not match the calculated checksum.");
+                }
+                result.put(alg, actual);
+            }
+        }
+        return result;
+    }
+
+    private void store(Bucket b, Version v) {
+        synchronized (b) {
+            LinkedList<Version> versions = b.objects.computeIfAbsent(v.key, k -> new LinkedList<>());
+            if ("Enabled".equals(b.versioning)) {
+                v.versionId = newVersionId();
+            } else {
+                versions.removeIf(x -> x.versionId.equals("null"));
+                v.versionId = "null";
+            }
+            versions.addFirst(v);
+        }
+    }
+
+    // returns the removed version or the delete marker that was added, or null when nothing matched
+    private Version delete(Bucket b, String key, String versionId) {
+        synchronized (b) {
+            LinkedList<Version> versions = b.objects.get(key);
+            Version result = null;
+            if (versionId != null) {
+                if (versions != null) {
+                    for (Version v : versions) {
+                        if (v.versionId.equals(versionId)) {
+                            result = v;
+                        }
+                    }
+                    versions.remove(result);
+                }
+            } else if (b.versioning == null) {
+                if (versions != null) {
+                    result = versions.getFirst();
+                    versions.clear();
+                }
+            } else {
+                Version marker = new Version(key, new byte[0]);
+                marker.deleteMarker = true;
+                store(b, marker);
+                return marker;
+            }
+            if (versions != null && versions.isEmpty()) {
+                b.objects.remove(key);
+            }
+            return result;
+        }
+    }
+
+    private Version find(Bucket b, String key, String versionId) {
+        synchronized (b) {
+            LinkedList<Version> versions = b.objects.get(key);
+            Version v = null;
+            if (versions != null) {
+                v = versionId == null ? versions.getFirst()
+                        : versions.stream().filter(x -> x.versionId.equals(versionId)).findFirst().orElse(null);
+            }
+            if (v == null || v.deleteMarker) {
+                throw new S3Error(404, "NoSuchKey", "The specified key does not exist.");
+            }
+            return v;
+        }
+    }
+
+    private Version copySource(Request r) {
+        String source = r.exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+        String versionId = null;
+        int query = source.indexOf("?versionId=");
+        if (query >= 0) {
+            versionId = source.substring(query + "?versionId=".length());
+            source = source.substring(0, query);
+        }
+        source = URLDecoder.decode(source.replace("+", "%2B"), StandardCharsets.UTF_8);
+        if (source.startsWith("/")) {
+            source = source.substring(1);
+        }
+        int slash = source.indexOf('/');
+        if (slash <= 0) {
+            throw new S3Error(400, "InvalidArgument", "Copy Source must mention the source bucket and key: sourcebucket/sourcekey");
+        }
+        Version v = find(bucket(source.substring(0, slash)), source.substring(slash + 1), versionId);
+        // same precedence as GET's conditional headers, but every failed copy condition is a 412
+        Headers in = r.exchange.getRequestHeaders();
+        String ifMatch = in.getFirst("x-amz-copy-source-if-match");
+        String ifNoneMatch = in.getFirst("x-amz-copy-source-if-none-match");
+        Instant modified = v.lastModified.truncatedTo(ChronoUnit.SECONDS);
+        Instant unmodifiedSince = httpDate(in.getFirst("x-amz-copy-source-if-unmodified-since"));
+        Instant modifiedSince = httpDate(in.getFirst("x-amz-copy-source-if-modified-since"));
+        if (ifMatch != null ? !etagMatches(ifMatch, v.etag) : unmodifiedSince != null && modified.isAfter(unmodifiedSince)) {
+            throw new S3Error(412, "PreconditionFailed", "At least one of the pre-conditions you specified did not hold");
+        }
+        if (ifNoneMatch != null ? etagMatches(ifNoneMatch, v.etag) : modifiedSince != null && !modified.isAfter(modifiedSince)) {
+            throw new S3Error(412, "PreconditionFailed", "At least one of the pre-conditions you specified did not hold");
+        }
+        return v;
+    }
+
+    private Bucket bucket(String name) {
+        Bucket b = buckets.get(name);
+        if (b == null) {
+            throw new S3Error(404, "NoSuchBucket", "The specified bucket does not exist");
+        }
+        return b;
+    }
+
+    private Upload upload(String uploadId, Bucket b, String key) {
+        Upload upload = uploads.get(uploadId);
+        if (upload == null || !upload.bucket.equals(b.name) || !upload.key.equals(key)) {
+            throw new S3Error(404, "NoSuchUpload", "The specified multipart upload does not exist.");
+        }
+        return upload;
+    }
+
+    // ---- HTTP plumbing
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        long total = 0;
+        int declared = contentLength(exchange);
+        try (InputStream in = exchange.getRequestBody()) {
+            if (declared >= 0) {
+                // straight into an array of the declared size: no growing buffer and no final copy
+                byte[] body = new byte[declared];
+                int n;
+                while (total < declared && (n = in.read(body, (int) total, (int) Math.min(IO_CHUNK, declared - total))) > 0) {
+                    total += n;
+                    pace(total, start);
+                }
+                return total == declared ? body : Arrays.copyOf(body, (int) total);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[IO_CHUNK];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+                total += n;
+                pace(total, start);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    // -1 when the body is chunked or too large for one array
+    private static int contentLength(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            long length = Long.parseLong(value.trim());
+            return length >= 0 && length <= Integer.MAX_VALUE - 8 ? (int) length : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void objectHeaders(Request r, Bucket b, Version v) {
+        r.header("ETag", quote(v.etag));
+        r.header("Last-Modified", HTTP_DATE.format(v.lastModified));
+        r.header("Accept-Ranges", "bytes");
+        if (v.contentEncoding != null) {
+            r.header("Content-Encoding", v.contentEncoding);
+        }
+        if (!v.storageClass.equals("STANDARD")) {
+            r.header("x-amz-storage-class", v.storageClass);
+        }
+        if (v.partSizes != null && r.params.get("partNumber") == null) {
+            r.header("x-amz-mp-parts-count", Integer.toString(v.partSizes.length));
+        }
+        v.metadata.forEach((k, val) -> r.header("x-amz-meta-" + k, val));
+        if (!v.tags.isEmpty()) {
+            r.header("x-amz-tagging-count", Integer.toString(v.tags.size()));
+        }
+        sseHeader(r, v);
+        versionHeader(r, b, v);
+    }
+
+    private void sseHeader(Request r, Version v) {
+        if (v.sse != null) {
+            r.header("x-amz-server-side-encryption", v.sse);
+        }
+    }
+
+    private void versionHeader(Request r, Bucket b, Version v) {
+        if (b.versioning != null) {
+            r.header("x-amz-version-id", v.versionId);
+        }
+    }
+
+    private void send(Request r, int status, String contentType, byte[] body) throws IOException {
+        sendRange(r, status, contentType, body, 0, body == null ? 0 : body.length);
+    }
+
+    private void sendXml(Request r, int status, StringBuilder xml) throws IOException {
+        send(r, status, "application/xml", xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void sendRange(Request r, int status, String contentType, byte[] body, int offset, int length) throws IOException {
+        Headers out = r.exchange.getResponseHeaders();
+        r.headers.forEach(out::set);
+        out.set("x-amz-request-id", Long.toHexString(requests.get()));
+        if (contentType != null) {
+            out.set("Content-Type", contentType);
+        }
+        boolean head = r.method.equals("HEAD");
+        if (head || status == 304 || status == 204 || body == null) {
+            if (head && body != null) {
+                out.set("Content-Length", Integer.toString(length));
+            }
+            r.exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        r.exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        long start = System.nanoTime();
+        try (OutputStream os = r.exchange.getResponseBody()) {
+            for (int written = 0; written < length; ) {
+                int n = Math.min(IO_CHUNK, length - written);
+                os.write(body, offset + written, n);
+                written += n;
+                pace(written, start);
+            }
+        }
+    }
+
+    private void sendError(HttpExchange exchange, S3Error e) throws IOException {
+        byte[] body = (xmlStart("Error").append(tag("Code", e.code)).append(tag("Message", e.getMessage()))
+                .append(tag("RequestId", Long.toHexString(requests.get()))).append("</Error>")).toString().getBytes(StandardCharsets.UTF_8);
+        Headers out = exchange.getResponseHeaders();
+        out.set("Content-Type", "application/xml");
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(e.status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(e.status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private void delay() {
+        long nanos = latency.toNanos();
+        long jitter = latencyJitter.toNanos();
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (nanos > 0) {
+            sleep(nanos);
+        }
+    }
+
+    private boolean throttle() {
+        double probability = throttleProbability;
+        if (probability > 0 && ThreadLocalRandom.current().nextDouble() < probability) {
+            return true;
+        }
+        int limit = maxRequestsPerSecond;
+        if (limit <= 0) {
+            return false;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        synchronized (this) {
+            if (second != windowSecond) {
+                windowSecond = second;
+                windowRequests = 0;
+            }
+            return ++windowRequests > limit;
+        }
+    }
+
+    // sleeps until `bytes` fit under the bandwidth cap since `startNanos`
+    private void pace(long bytes, long startNanos) {
+        long rate = bytesPerSecond;
+        if (rate <= 0) {
+            return;
+        }
+        long due = startNanos + bytes * 1_000_000_000L / rate;
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            sleep(wait);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        try (in) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    // ---- helpers
+
+    private static String subresource(Request r) {
+        return r.params.keySet().stream().filter(p -> !p.equals("versionId")).findFirst()
+                .orElseThrow(() -> new S3Error(400, "InvalidRequest", "Missing subresource"));
+    }
+
+    private static Map<String, String> parseTags(byte[] body) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        NodeList list = parse(body).getDocumentElement().getElementsByTagName("Tag");
+        for (int i = 0; i < list.getLength(); i++) {
+            Element e = (Element) list.item(i);
+            tags.put(text(e, "Key"), text(e, "Value"));
+        }
+        return tags;
+    }
+
+    private static Map<String, String> parseTagHeader(String header) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        if (header != null && !header.isEmpty()) {
+            for (String pair : header.split("&")) {
+                String[] kv = pair.split("=", 2);
+                tags.put(URLDecoder.decode(kv[0], StandardCharsets.UTF_8), kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return tags;
+    }
+
+    private static Document parse(byte[] body) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(body));
+        } catch (Exception e) {
+            throw new S3Error(400, "MalformedXML", "The XML you provided was not well-formed");
+        }
+    }
+
+    private static String text(Element parent, String name) {
+        NodeList list = parent.getElementsByTagName(name);
+        return list.getLength() == 0 ? null : list.item(0).getTextContent();
+    }
+
+    private static StringBuilder xmlStart(String root) {
+        return new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><").append(root).append(" xmlns=\"").append(XMLNS).append("\">");
+    }
+
+    private static String tag(String name, Object value) {
+        return "<" + name + ">" + escape(String.valueOf(value)) + "</" + name + ">";
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String encode(String s, boolean url) {
+        return url ? URLEncoder.encode(s, StandardCharsets.UTF_8).replace("+", "%20") : s;
+    }
+
+    private static String quote(String etag) {
+        return "\"" + etag + "\"";
+    }
+
+    private static boolean etagMatches(String condition, String etag) {
+        for (String candidate : condition.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.replace("\"", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String iso(Instant instant) {
+        return DateTimeFormatter.ISO_INSTANT.format(instant.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private static Instant httpDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String newVersionId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String checksum(String algorithm, byte[] data, int offset, int length) {
+        try {
+            return switch (algorithm) {
+                case "CRC32" -> crc(new CRC32(), data, offset, length);
+                case "CRC32C" -> crc(new CRC32C(), data, offset, length);
+                case "SHA1" -> Base64.getEncoder().encodeToString(digest("SHA-1", data, offset, length));
+                case "SHA256" -> Base64.getEncoder().encodeToString(digest("SHA-256", data, offset, length));
+                default -> throw new S3Error(400, "InvalidRequest", "Unsupported checksum algorithm " + algorithm);
+            };
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String crc(Checksum crc, byte[] data, int offset, int length) {
+        crc.update(data, offset, length);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static byte[] digest(String algorithm, byte[] data, int offset, int length) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance(algorithm);
+        digest.update(data, offset, length);
+        return digest.digest();
+    }
+
+    // aws-chunked bodies: "<hex size>[;chunk-signature=...]\r\n<data>\r\n" ... "0\r\n" then trailer lines
+    static byte[] decodeAwsChunked(byte[] body, Map<String, String> trailers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+        int pos = 0;
+        while (pos < body.length) {
+            int eol = indexOfCrlf(body, pos);
+            String header = new String(body, pos, eol - pos, StandardCharsets.US_ASCII);
+            pos = eol + 2;
+            int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+            if (size == 0) {
+                while (pos < body.length) {
+                    eol = indexOfCrlf(body, pos);
+                    String line = new String(body, pos, eol - pos, StandardCharsets.US_ASCII);
+                    pos = eol + 2;
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        trailers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+                    }
+                }
+                break;
+            }
+            out.write(body, pos, size);
+            pos += size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] body, int from) {
+        for (int i = from; i + 1 < body.length; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+
+    // ---- model
+
+    private static final class Request {
+        final HttpExchange exchange;
+        final String method;
+        final Map<String, String> params = new LinkedHashMap<>();
+        final Map<String, String> headers = new LinkedHashMap<>();
+        final Map<String, String> trailers = new LinkedHashMap<>();
+        final byte[] body;
+
+        Request(HttpExchange exchange, byte[] raw) {
+            this.exchange = exchange;
+            this.method = exchange.getRequestMethod().toUpperCase(Locale.ROOT);
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null && !query.isEmpty()) {
+                for (String pair : query.split("&")) {
+                    String[] kv = pair.split("=", 2);
+                    params.put(URLDecoder.decode(kv[0], StandardCharsets.UTF_8), kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "");
+                }
+            }
+            Headers in = exchange.getRequestHeaders();
+            String sha = in.getFirst("x-amz-content-sha256");
+            String encoding = in.getFirst("Content-Encoding");
+            boolean chunked = sha != null && sha.startsWith("STREAMING-")
+                    || encoding != null && encoding.toLowerCase(Locale.ROOT).contains("aws-chunked");
+            this.body = chunked ? decodeAwsChunked(raw, trailers) : raw;
+        }
+
+        void header(String name, String value) {
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+    }
+
+    private static final class S3Error extends RuntimeException {
+        final int status;
+        final String code;
+
+        S3Error(int status, String code, String message) {
+            super(message);
+            this.status = status;
+            this.code = code;
+        }
+    }
+
+    private static final class Bucket {
+        final String name;
+        final Instant created = Instant.now();
+        final TreeMap<String, LinkedList<Version>> objects = new TreeMap<>();
+        final Map<String, byte[]> documents = new LinkedHashMap<>();
+        volatile String versioning;
+
+        Bucket(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Version {
+        final String key;
+        final Instant lastModified = Instant.now();
+        String versionId = "null";
+        byte[] data;
+        String etag;
+        String contentType = "binary/octet-stream";
+        String contentEncoding;
+        String storageClass = "STANDARD";
+        String sse;
+        Map<String, String> metadata = new LinkedHashMap<>();
+        Map<String, String> tags = new LinkedHashMap<>();
+        Map<String, String> checksums = new LinkedHashMap<>();
+        long[] partSizes;
+        boolean deleteMarker;
+
+        Version(String key, byte[] data) {
+            this.key = key;
+            this.data = data;
+            this.etag = HexFormat.of().formatHex(md5().digest(data));
+        }
+
+        Version copyAs(String newKey) {
+            Version copy = new Version(newKey, data);
+            copy.etag = etag;
+            copy.contentType = contentType;
+            copy.contentEncoding = contentEncoding;
+            copy.storageClass = storageClass;
+            copy.sse = sse;
+            copy.metadata = new LinkedHashMap<>(metadata);
+            copy.tags = new LinkedHashMap<>(tags);
+            copy.checksums = new LinkedHashMap<>(checksums);
+            copy.partSizes = partSizes;
+            return copy;
+        }
+    }
+
+    private static final class Part {
+        final int number;
+        final byte[] data;
+        final String etag;
+        final Map<String, String> checksums;
+        final Instant lastModified = Instant.now();
+
+        Part(int number, byte[] data, Map<String, String> checksums) {
+            this.number = number;
+            this.data = data;
+            this.etag = HexFormat.of().formatHex(md5().digest(data));
+            this.checksums = checksums;
+        }
+    }
+
+    private static final class Upload {
+        final String id = newVersionId();
+        final String bucket;
+        final String key;
+        final Version template;
+        final Instant initiated = Instant.now();
+        final TreeMap<Integer, Part> parts = new TreeMap<>();
+
+        Upload(String bucket, String key, Version template) {
+            this.bucket = bucket;
+            this.key = key;
+            this.template = template;
+        }
+    }
+}
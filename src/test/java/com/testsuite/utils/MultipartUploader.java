@@ -0,0 +1,242 @@
+package com.testsuite.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+public class MultipartUploader {
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    public static final long DEFAULT_PART_SIZE = 8L * 1024 * 1024;
+    public static final int MAX_PARTS = 10_000;
+
+    private final S3Utilities s3Utils;
+    private final int parallelism;
+    private final int maxAttemptsPerPart;
+
+    public MultipartUploader(S3Utilities s3Utils) {
+        this(s3Utils, 8, 3);
+    }
+
+    public MultipartUploader(S3Utilities s3Utils, int parallelism, int maxAttemptsPerPart) {
+        this.s3Utils = s3Utils;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxAttemptsPerPart = Math.max(1, maxAttemptsPerPart);
+    }
+
+    public CompleteMultipartUploadResponse upload(String bucket, String key, Path file, String contentType) throws IOException {
+        long size = Files.size(file);
+        return upload(bucket, key, contentType, size, partSizeFor(size),
+                (offset, length) -> () -> fileSlice(file, offset, length, contentType));
+    }
+
+    public CompleteMultipartUploadResponse upload(String bucket, String key, InputStream in, long size, String contentType) throws IOException {
+        return upload(bucket, key, contentType, size, partSizeFor(size), (offset, length) -> {
+            byte[] buffer = in.readNBytes((int) length);
+            if (buffer.length != length) {
+                throw new EOFException("Stream ended after " + (offset + buffer.length) + " of " + size + " bytes");
+            }
+            return () -> RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer), length, contentType);
+        });
+    }
+
+    public static long partSizeFor(long size) {
+        long mib = 1024L * 1024;
+        long partSize = Math.max(DEFAULT_PART_SIZE, (size + MAX_PARTS - 1) / MAX_PARTS);
+        return (partSize + mib - 1) / mib * mib;
+    }
+
+    private CompleteMultipartUploadResponse upload(String bucket, String key, String contentType, long size, long partSize, PartSource source) throws IOException {
+        String uploadId = s3Utils.createMultipartUpload(bucket, key, contentType, null).uploadId();
+        ExecutorService pool = DaemonThreads.fixedPool("s3-multipart-" + key, parallelism);
+        // one permit per part in flight bounds the buffered bytes to parallelism * partSize
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            long offset = 0;
+            do {
+                long length = Math.min(partSize, size - offset);
+                inFlight.acquire();
+                if (failure.get() != null) {
+                    inFlight.release();
+                    break;
+                }
+                int number = partNumber;
+                Supplier<RequestBody> body = source.open(offset, length);
+                parts.add(pool.submit(() -> {
+                    try {
+                        return uploadPart(bucket, key, uploadId, number, body);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                partNumber++;
+                offset += length;
+            } while (offset < size);
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completed.add(part.get());
+            }
+            return s3Utils.completeMultipartUpload(bucket, key, uploadId, completed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucket, key, uploadId, pool);
+            throw new RuntimeException("Interrupted during multipart upload of " + key, e);
+        } catch (ExecutionException e) {
+            abort(bucket, key, uploadId, pool);
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Multipart upload of " + key + " failed", e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abort(bucket, key, uploadId, pool);
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CompletedPart uploadPart(String bucket, String key, String uploadId, int partNumber, Supplier<RequestBody> body) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                UploadPartResponse res = s3Utils.uploadPart(bucket, key, uploadId, partNumber, body.get());
+                return CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(res.eTag())
+                        .checksumCRC32(res.checksumCRC32())
+                        .checksumCRC32C(res.checksumCRC32C())
+                        .checksumSHA1(res.checksumSHA1())
+                        .checksumSHA256(res.checksumSHA256())
+                        .build();
+            } catch (SdkException e) {
+                if (attempt >= maxAttemptsPerPart || !isRetryable(e)) {
+                    throw e;
+                }
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private void abort(String bucket, String key, String uploadId, ExecutorService pool) {
+        pool.shutdownNow();
+        try {
+            s3Utils.abortMultipartUpload(bucket, key, uploadId);
+        } catch (Exception e) {
+            System.err.println("Error aborting multipart upload " + uploadId + ": " + e.getMessage());
+        }
+    }
+
+    static boolean isRetryable(SdkException e) {
+        if (e.retryable() || e instanceof SdkClientException) {
+            return true;
+        }
+        return e instanceof AwsServiceException ase
+                && (ase.isThrottlingException() || ase.statusCode() >= 500 || ase.statusCode() == 408);
+    }
+
+    static void sleepBeforeRetry(int attempt) {
+        long base = Math.min(5_000, 200L << Math.min(attempt, 5));
+        try {
+            Thread.sleep(base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Interrupted while backing off", e);
+        }
+    }
+
+    static RequestBody fileSlice(Path file, long offset, long length, String contentType) {
+        return RequestBody.fromContentProvider(() -> {
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channel.position(offset);
+                return new SliceInputStream(Channels.newInputStream(channel), length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, length, contentType == null ? "application/octet-stream" : contentType);
+    }
+
+    private interface PartSource {
+        Supplier<RequestBody> open(long offset, long length) throws IOException;
+    }
+
+    private static final class SliceInputStream extends FilterInputStream {
+        private long remaining;
+
+        SliceInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
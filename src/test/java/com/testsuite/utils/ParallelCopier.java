@@ -0,0 +1,138 @@
+package com.testsuite.utils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
+import software.amazon.awssdk.services.s3.model.Tag;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+
+final class ParallelCopier {
+    static final long DEFAULT_PART_SIZE = 64L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final int parallelism;
+
+    ParallelCopier(S3Client s3, int parallelism) {
+        this.s3 = s3;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    // metadata == null keeps the source's metadata and headers (COPY); otherwise only metadata is set (REPLACE)
+    CompleteMultipartUploadResponse copy(String sourceBucket, String sourceKey, String destBucket, String destKey,
+            HeadObjectResponse source, Map<String, String> metadata) {
+        CreateMultipartUploadRequest.Builder create = CreateMultipartUploadRequest.builder()
+                .bucket(destBucket)
+                .key(destKey);
+        if (metadata == null) {
+            create.contentType(source.contentType())
+                    .contentEncoding(source.contentEncoding())
+                    .contentDisposition(source.contentDisposition())
+                    .contentLanguage(source.contentLanguage())
+                    .cacheControl(source.cacheControl())
+                    .expires(source.expires())
+                    .websiteRedirectLocation(source.websiteRedirectLocation())
+                    .metadata(source.metadata())
+                    .tagging(sourceTagging(sourceBucket, sourceKey));
+            if (source.serverSideEncryption() == ServerSideEncryption.AWS_KMS) {
+                create.serverSideEncryption(ServerSideEncryption.AWS_KMS).ssekmsKeyId(source.ssekmsKeyId());
+            } else if (source.serverSideEncryption() != null) {
+                create.serverSideEncryption(source.serverSideEncryption());
+            }
+        } else {
+            create.metadata(metadata);
+        }
+        String uploadId = s3.createMultipartUpload(create.build()).uploadId();
+
+        long size = source.contentLength();
+        long partSize = Math.max(DEFAULT_PART_SIZE, MultipartUploader.partSizeFor(size));
+        ExecutorService pool = DaemonThreads.fixedPool("s3-copy-" + destKey, parallelism);
+        try {
+            List<Future<CompletedPart>> futures = new ArrayList<>();
+            int partNumber = 1;
+            for (long start = 0; start < size; start += partSize, partNumber++) {
+                long end = Math.min(size, start + partSize) - 1;
+                int number = partNumber;
+                long from = start;
+                futures.add(pool.submit(() -> copyPart(sourceBucket, sourceKey, destBucket, destKey, uploadId,
+                        number, from, end, source.eTag())));
+            }
+            List<CompletedPart> parts = new ArrayList<>(futures.size());
+            for (Future<CompletedPart> future : futures) {
+                parts.add(future.get());
+            }
+            return s3.completeMultipartUpload(b -> b.bucket(destBucket).key(destKey).uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(parts)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(destBucket, destKey, uploadId, pool);
+            throw new RuntimeException("Interrupted while copying " + sourceKey, e);
+        } catch (ExecutionException e) {
+            abort(destBucket, destKey, uploadId, pool);
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Multipart copy of " + sourceKey + " failed", e.getCause());
+        } catch (RuntimeException e) {
+            abort(destBucket, destKey, uploadId, pool);
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CompletedPart copyPart(String sourceBucket, String sourceKey, String destBucket, String destKey,
+            String uploadId, int partNumber, long start, long end, String sourceETag) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                UploadPartCopyResponse res = s3.uploadPartCopy(b -> b
+                        .sourceBucket(sourceBucket)
+                        .sourceKey(sourceKey)
+                        .destinationBucket(destBucket)
+                        .destinationKey(destKey)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .copySourceRange("bytes=" + start + "-" + end)
+                        .copySourceIfMatch(sourceETag));
+                return CompletedPart.builder().partNumber(partNumber).eTag(res.copyPartResult().eTag()).build();
+            } catch (SdkException e) {
+                if (attempt >= 3 || !MultipartUploader.isRetryable(e)) {
+                    throw e;
+                }
+                MultipartUploader.sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private String sourceTagging(String bucket, String key) {
+        List<Tag> tags = s3.getObjectTagging(b -> b.bucket(bucket).key(key)).tagSet();
+        if (tags.isEmpty()) {
+            return null;
+        }
+        return tags.stream()
+                .map(t -> URLEncoder.encode(t.key(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(t.value(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    private void abort(String bucket, String key, String uploadId, ExecutorService pool) {
+        pool.shutdownNow();
+        try {
+            s3.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (Exception e) {
+            System.err.println("Error aborting multipart copy " + uploadId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.testsuite.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
+
+final class ParallelDownloader {
+    static final long DEFAULT_RANGE_SIZE = 8L * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+
+    private final S3Utilities s3Utils;
+    private final int parallelism;
+
+    ParallelDownloader(S3Utilities s3Utils, int parallelism) {
+        this.s3Utils = s3Utils;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    HeadObjectResponse download(String bucket, String key, Path destination) throws IOException {
+        HeadObjectResponse head = s3Utils.headObject(bucket, key);
+        long size = head.contentLength();
+        String etag = head.eTag();
+        boolean verifiable = etag != null
+                && head.serverSideEncryption() != ServerSideEncryption.AWS_KMS
+                && head.sseCustomerAlgorithm() == null;
+        int partsCount = partsCount(etag);
+
+        // align ranges with the upload parts when the layout is uniform so each range's MD5 is a part MD5
+        long rangeSize = DEFAULT_RANGE_SIZE;
+        boolean partAligned = false;
+        if (partsCount > 1) {
+            long partSize = s3Utils.headObjectPart(bucket, key, 1).contentLength();
+            if (partSize > 0 && (size + partSize - 1) / partSize == partsCount) {
+                rangeSize = partSize;
+                partAligned = true;
+            }
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (long start = 0; start < size; start += rangeSize) {
+            ranges.add(new long[] {start, Math.min(size, start + rangeSize) - 1});
+        }
+
+        ExecutorService pool = DaemonThreads.fixedPool("s3-download-" + key, Math.min(parallelism, Math.max(1, ranges.size())));
+        List<byte[]> rangeDigests = new ArrayList<>(ranges.size());
+        try (FileChannel channel = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<Future<byte[]>> futures = new ArrayList<>(ranges.size());
+            for (long[] range : ranges) {
+                futures.add(pool.submit(() -> fetchRange(bucket, key, etag, range[0], range[1], channel)));
+            }
+            for (Future<byte[]> future : futures) {
+                rangeDigests.add(future.get());
+            }
+
+            if (verifiable) {
+                String actual;
+                if (partsCount > 1 && partAligned) {
+                    MessageDigest md5 = md5();
+                    rangeDigests.forEach(md5::update);
+                    actual = HexFormat.of().formatHex(md5.digest()) + "-" + partsCount;
+                } else if (partsCount == 1) {
+                    actual = HexFormat.of().formatHex(ranges.size() == 1 ? rangeDigests.get(0) : md5Of(channel, size));
+                } else {
+                    actual = null;
+                }
+                String expected = etag.replace("\"", "");
+                if (actual != null && !actual.equals(expected)) {
+                    throw new IOException("Downloaded " + key + " does not match ETag " + expected + " (got " + actual + ")");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Download of " + key + " failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return head;
+    }
+
+    private byte[] fetchRange(String bucket, String key, String etag, long start, long end, FileChannel channel) throws IOException {
+        MessageDigest md5 = md5();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long position = start;
+        try (ResponseInputStream<GetObjectResponse> in = s3Utils.getObjectRange(bucket, key, start, end, etag)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                md5.update(buffer, 0, n);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+                while (chunk.hasRemaining()) {
+                    position += channel.write(chunk, position);
+                }
+            }
+        }
+        if (position != end + 1) {
+            throw new EOFException("Range " + start + "-" + end + " of " + key + " ended at " + position);
+        }
+        return md5.digest();
+    }
+
+    private static byte[] md5Of(FileChannel channel, long size) throws IOException {
+        MessageDigest md5 = md5();
+        long chunk = 256L * 1024 * 1024;
+        for (long position = 0; position < size; position += chunk) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunk, size - position));
+            md5.update(mapped);
+        }
+        return md5.digest();
+    }
+
+    private static int partsCount(String etag) {
+        if (etag == null) {
+            return 0;
+        }
+        int dash = etag.lastIndexOf('-');
+        if (dash < 0) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(etag.substring(dash + 1).replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
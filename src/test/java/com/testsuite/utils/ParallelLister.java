@@ -0,0 +1,219 @@
+package com.testsuite.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+// Splits a listing into disjoint, contiguous key ranges (shards), lists them concurrently and
+// concatenates them in key order. Each shard may run ahead of the consumer by shardBufferSize keys.
+public class ParallelLister {
+    public static final int DEFAULT_SHARD_BUFFER_SIZE = 50_000;
+    // split points used when a flat prefix has to be sharded without knowing its keys
+    public static final String DEFAULT_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int MAX_DISCOVERY_DEPTH = 3;
+    private static final Object END = new Object();
+    // S3 orders keys by UTF-8 bytes, which matches code point order rather than String.compareTo
+    static final Comparator<String> KEY_ORDER = (a, b) -> {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    };
+
+    private final S3Utilities s3Utils;
+    private final int workers;
+    private final int shardBufferSize;
+
+    public ParallelLister(S3Utilities s3Utils, int workers) {
+        this(s3Utils, workers, DEFAULT_SHARD_BUFFER_SIZE);
+    }
+
+    public ParallelLister(S3Utilities s3Utils, int workers, int shardBufferSize) {
+        this.s3Utils = s3Utils;
+        this.workers = Math.max(1, workers);
+        this.shardBufferSize = Math.max(1, shardBufferSize);
+    }
+
+    public Stream<S3Object> listByDelimiter(String bucket, String prefix, String delimiter) {
+        ExecutorService pool = newPool(bucket);
+        try {
+            return merge(bucket, discoverByDelimiter(bucket, prefix == null ? "" : prefix, delimiter, pool), pool);
+        } catch (RuntimeException e) {
+            pool.shutdownNow();
+            throw e;
+        }
+    }
+
+    public Stream<S3Object> listByAlphabet(String bucket, String prefix, String alphabet) {
+        return merge(bucket, alphabetShards(prefix == null ? "" : prefix, alphabet), newPool(bucket));
+    }
+
+    // descends the delimiter hierarchy one page per prefix; a prefix whose first page is truncated is too
+    // large (or too flat) to enumerate here and is split into StartAfter ranges instead
+    private List<Shard> discoverByDelimiter(String bucket, String prefix, String delimiter, ExecutorService pool) {
+        List<Shard> shards = new ArrayList<>();
+        List<String> frontier = List.of(prefix);
+        int target = workers * 4;
+        for (int depth = 0; depth < MAX_DISCOVERY_DEPTH && !frontier.isEmpty(); depth++) {
+            List<CompletableFuture<ListObjectsV2Response>> levels = new ArrayList<>();
+            for (String p : frontier) {
+                levels.add(CompletableFuture.supplyAsync(() -> s3Utils.client().listObjectsV2(ListObjectsV2Request.builder()
+                        .bucket(bucket)
+                        .prefix(p)
+                        .delimiter(delimiter)
+                        .build()), pool));
+            }
+            List<String> next = new ArrayList<>();
+            for (int i = 0; i < levels.size(); i++) {
+                ListObjectsV2Response page = levels.get(i).join();
+                if (Boolean.TRUE.equals(page.isTruncated())) {
+                    shards.addAll(alphabetShards(frontier.get(i), DEFAULT_ALPHABET));
+                    continue;
+                }
+                page.contents().forEach(o -> shards.add(Shard.single(o)));
+                page.commonPrefixes().stream().map(CommonPrefix::prefix).forEach(next::add);
+            }
+            frontier = next;
+            if (shards.size() + frontier.size() >= target) {
+                break;
+            }
+        }
+        frontier.forEach(p -> shards.add(Shard.range(p, null, null)));
+        shards.sort(Comparator.comparing(Shard::lowerBound, KEY_ORDER));
+        return shards;
+    }
+
+    static List<Shard> alphabetShards(String base, String alphabet) {
+        TreeSet<String> boundaries = new TreeSet<>(KEY_ORDER);
+        alphabet.codePoints().forEach(c -> boundaries.add(base + Character.toString(c)));
+
+        // shards are (b[i-1], b[i]] so a key equal to a boundary lands in exactly one shard
+        List<Shard> shards = new ArrayList<>();
+        String startAfter = null;
+        for (String boundary : boundaries) {
+            shards.add(Shard.range(base, startAfter, boundary));
+            startAfter = boundary;
+        }
+        shards.add(Shard.range(base, startAfter, null));
+        return shards;
+    }
+
+    private Stream<S3Object> merge(String bucket, List<Shard> shards, ExecutorService pool) {
+        List<BlockingQueue<Object>> outputs = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            if (shard.object() != null) {
+                BlockingQueue<Object> single = new LinkedBlockingQueue<>(List.of(shard.object(), END));
+                outputs.add(single);
+                continue;
+            }
+            BlockingQueue<Object> queue = new LinkedBlockingQueue<>(shardBufferSize);
+            outputs.add(queue);
+            // shards are submitted in key order, so the shard being consumed is always running or done
+            pool.execute(() -> produce(bucket, shard, queue));
+        }
+        pool.shutdown();
+
+        Iterator<S3Object> merged = new Iterator<>() {
+            private int index;
+            private S3Object next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && index < outputs.size()) {
+                    Object item;
+                    try {
+                        item = outputs.get(index).take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted while listing " + bucket, e);
+                    }
+                    if (item == END) {
+                        outputs.set(index, null);
+                        index++;
+                    } else if (item instanceof RuntimeException e) {
+                        throw e;
+                    } else {
+                        next = (S3Object) item;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public S3Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                S3Object result = next;
+                next = null;
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(pool::shutdownNow);
+    }
+
+    private void produce(String bucket, Shard shard, BlockingQueue<Object> queue) {
+        try (PrefetchingObjectIterator objects = s3Utils.iterateObjects(ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(shard.prefix())
+                .startAfter(shard.startAfter())
+                .build())) {
+            while (objects.hasNext()) {
+                S3Object object = objects.next();
+                if (shard.lastKey() != null && KEY_ORDER.compare(object.key(), shard.lastKey()) > 0) {
+                    break;
+                }
+                queue.put(object);
+            }
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            queue.clear();
+            queue.offer(e);
+        }
+    }
+
+    private ExecutorService newPool(String bucket) {
+        return DaemonThreads.fixedPool("s3-list-" + bucket, workers);
+    }
+
+    record Shard(String prefix, String startAfter, String lastKey, S3Object object) {
+        static Shard range(String prefix, String startAfter, String lastKey) {
+            return new Shard(prefix, startAfter, lastKey, null);
+        }
+
+        static Shard single(S3Object object) {
+            return new Shard(object.key(), null, null, object);
+        }
+
+        String lowerBound() {
+            return startAfter != null ? startAfter : prefix;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.testsuite.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ParallelListerTest {
+
+    @Test
+    public void KeyOrderMatchesUtf8ByteOrder() {
+        String[] keys = {"a", "a/b", "a\ufffd", "a\ud83d\ude00", "b", "\u00e9", "A", "~"};
+        String[] byKeyOrder = keys.clone();
+        Arrays.sort(byKeyOrder, ParallelLister.KEY_ORDER);
+        String[] byBytes = keys.clone();
+        Arrays.sort(byBytes, (x, y) -> Arrays.compareUnsigned(x.getBytes(StandardCharsets.UTF_8), y.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(byKeyOrder, byBytes);
+    }
+
+    @Test
+    public void AlphabetShardsCoverEveryKeyExactlyOnce() {
+        List<ParallelLister.Shard> shards = ParallelLister.alphabetShards("logs/", ParallelLister.DEFAULT_ALPHABET);
+        Assert.assertEquals(shards.size(), ParallelLister.DEFAULT_ALPHABET.length() + 1);
+        String[] keys = {"logs/", "logs/ ", "logs/0", "logs/0abc", "logs/9", "logs/A-1", "logs/Zz", "logs/_x",
+                "logs/a", "logs/m/n", "logs/z", "logs/zzz", "logs/~", "logs/\u00e9t\u00e9"};
+        for (String key : keys) {
+            long owners = shards.stream().filter(shard -> contains(shard, key)).count();
+            Assert.assertEquals(owners, 1, key + " is covered by " + owners + " shards");
+        }
+        for (int i = 1; i < shards.size(); i++) {
+            Assert.assertTrue(ParallelLister.KEY_ORDER.compare(shards.get(i - 1).lowerBound(), shards.get(i).lowerBound()) < 0);
+        }
+    }
+
+    private static boolean contains(ParallelLister.Shard shard, String key) {
+        return key.startsWith(shard.prefix())
+                && (shard.startAfter() == null || ParallelLister.KEY_ORDER.compare(key, shard.startAfter()) > 0)
+                && (shard.lastKey() == null || ParallelLister.KEY_ORDER.compare(key, shard.lastKey()) <= 0);
+    }
+}
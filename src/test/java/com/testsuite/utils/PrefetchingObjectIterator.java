@@ -0,0 +1,81 @@
+package com.testsuite.utils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+// Walks ListObjectsV2 continuation tokens, fetching page N+1 while the caller consumes page N.
+// Nothing beyond the next page is requested until the caller actually reaches it.
+final class PrefetchingObjectIterator implements Iterator<S3Object>, AutoCloseable {
+    private static final ExecutorService FETCHERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("s3-list-prefetch-", 0).factory());
+
+    private final S3Client s3;
+    private final ListObjectsV2Request firstRequest;
+    private Iterator<S3Object> current = Collections.emptyIterator();
+    private CompletableFuture<ListObjectsV2Response> next;
+    private boolean closed;
+
+    PrefetchingObjectIterator(S3Client s3, ListObjectsV2Request firstRequest) {
+        this.s3 = s3;
+        this.firstRequest = firstRequest;
+        this.next = fetch(null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed || next == null) {
+                return false;
+            }
+            ListObjectsV2Response page;
+            try {
+                page = next.join();
+            } catch (CompletionException e) {
+                next = null;
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw e;
+            }
+            String token = page.nextContinuationToken();
+            next = Boolean.TRUE.equals(page.isTruncated()) && token != null ? fetch(token) : null;
+            current = page.contents().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public S3Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        current = Collections.emptyIterator();
+    }
+
+    private CompletableFuture<ListObjectsV2Response> fetch(String continuationToken) {
+        ListObjectsV2Request request = continuationToken == null
+                ? firstRequest
+                : firstRequest.toBuilder().continuationToken(continuationToken).build();
+        return CompletableFuture.supplyAsync(() -> s3.listObjectsV2(request), FETCHERS);
+    }
+}
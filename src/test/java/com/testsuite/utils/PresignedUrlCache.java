@@ -0,0 +1,41 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Reuses a presigned URL for the first part of its lifetime so every caller still gets a URL with at
+// least (1 - REUSE_FRACTION) of the requested validity left.
+final class PresignedUrlCache {
+    static final double REUSE_FRACTION = 0.1;
+    static final int MAX_ENTRIES = 50_000;
+
+    private final ConcurrentMap<Key, Cached> urls = new ConcurrentHashMap<>();
+
+    String get(String operation, String bucket, String key, Duration expiration, Supplier<String> presign) {
+        Key cacheKey = new Key(operation, bucket, key, expiration);
+        long now = System.nanoTime();
+        Cached cached = urls.get(cacheKey);
+        if (cached != null && now < cached.reuseUntil()) {
+            return cached.url();
+        }
+        String url = presign.get();
+        if (urls.size() >= MAX_ENTRIES) {
+            urls.values().removeIf(c -> now >= c.reuseUntil());
+            if (urls.size() >= MAX_ENTRIES) {
+                urls.clear();
+            }
+        }
+        urls.put(cacheKey, new Cached(url, now + (long) (expiration.toNanos() * REUSE_FRACTION)));
+        return url;
+    }
+
+    void clear() {
+        urls.clear();
+    }
+
+    private record Key(String operation, String bucket, String key, Duration expiration) {}
+
+    private record Cached(String url, long reuseUntil) {}
+}
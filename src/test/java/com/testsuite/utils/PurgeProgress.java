@@ -0,0 +1,11 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+
+public record PurgeProgress(long listed, long deleted, long failed, Duration elapsed, boolean done) {
+
+    public double deletesPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0 : deleted * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,353 @@
+package com.testsuite.utils;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.BucketVersioningStatus;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.CreateBucketResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteBucketRequest;
+import software.amazon.awssdk.services.s3.model.DeleteBucketResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectTaggingResponse;
+import software.amazon.awssdk.services.s3.model.GetBucketVersioningRequest;
+import software.amazon.awssdk.services.s3.model.GetBucketVersioningResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingResponse;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectVersionsRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectVersionsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.PutBucketVersioningRequest;
+import software.amazon.awssdk.services.s3.model.PutBucketVersioningResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectTaggingResponse;
+import software.amazon.awssdk.services.s3.model.Tag;
+import software.amazon.awssdk.services.s3.model.Tagging;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.model.VersioningConfiguration;
+
+public class S3AsyncUtilities {
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    private final S3AsyncClient s3;
+
+    public S3AsyncUtilities(Region region, String awsKey, String awsSecret) {
+        this(region, awsKey, awsSecret, null, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public S3AsyncUtilities(Region region, String awsKey, String awsSecret, URI endpoint, int maxConcurrency) {
+        this(region, awsKey, awsSecret, endpoint, maxConcurrency, endpoint != null && Config.getBoolean("s3ForcePathStyle", true));
+    }
+
+    public S3AsyncUtilities(Region region, String awsKey, String awsSecret, URI endpoint, int maxConcurrency, boolean forcePathStyle) {
+        AwsBasicCredentials awsCreds = AwsBasicCredentials.create(awsKey, awsSecret);
+
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(region)
+                .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .maxPendingConnectionAcquires(Math.max(10_000, maxConcurrency * 4)));
+        if (endpoint != null) {
+            builder.endpointOverride(endpoint);
+        }
+        builder.forcePathStyle(forcePathStyle);
+        this.s3 = builder.build();
+    }
+
+    public CompletableFuture<CreateBucketResponse> createBucket(String bucket) {
+        return s3.createBucket(CreateBucketRequest.builder().bucket(bucket).build());
+    }
+
+    public CompletableFuture<DeleteBucketResponse> deleteBucket(String bucket) {
+        return s3.deleteBucket(DeleteBucketRequest.builder().bucket(bucket).build());
+    }
+
+    public CompletableFuture<HeadBucketResponse> headBucket(String bucket) {
+        return s3.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+    }
+
+    public CompletableFuture<PutObjectResponse> putObject(String bucket, String key, byte[] content, String contentType) {
+        return s3.putObject(
+                PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                AsyncRequestBody.fromBytes(content)
+        );
+    }
+
+    public CompletableFuture<PutObjectResponse> putObjectWithMetadata(String bucket, String key, byte[] content, String contentType, Map<String, String> metadata) {
+        return s3.putObject(
+                PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType)
+                    .metadata(metadata)
+                    .build(),
+                AsyncRequestBody.fromBytes(content)
+        );
+    }
+
+    public CompletableFuture<PutObjectResponse> putFileObject(String bucket, String key, Path file, String contentType) {
+        return s3.putObject(
+                PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                AsyncRequestBody.fromFile(file)
+        );
+    }
+
+    public CompletableFuture<PutObjectResponse> putFileObject(String bucket, String key, Path file, String contentType, int chunkSizeInBytes) {
+        return s3.putObject(
+                PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                AsyncRequestBody.fromFile(c -> c.path(file).chunkSizeInBytes(chunkSizeInBytes))
+        );
+    }
+
+    public CompletableFuture<HeadObjectResponse> headObject(String bucket, String key) {
+        return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    public CompletableFuture<DeleteObjectResponse> deleteObject(String bucket, String key) {
+        return s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    public CompletableFuture<ResponseBytes<GetObjectResponse>> getObjectAsBytes(String bucket, String key) {
+        return s3.getObject(
+                GetObjectRequest.builder().bucket(bucket).key(key).build(),
+                AsyncResponseTransformer.toBytes()
+        );
+    }
+
+    public CompletableFuture<ResponseInputStream<GetObjectResponse>> getObjectAsStream(String bucket, String key) {
+        return s3.getObject(
+                GetObjectRequest.builder().bucket(bucket).key(key).build(),
+                AsyncResponseTransformer.toBlockingInputStream()
+        );
+    }
+
+    public CompletableFuture<ResponseBytes<GetObjectResponse>> getObjectRange(String bucket, String key, long start, long end) {
+        return s3.getObject(
+                GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .range("bytes=" + start + "-" + end)
+                    .build(),
+                AsyncResponseTransformer.toBytes()
+        );
+    }
+
+    public CompletableFuture<GetObjectResponse> getObjectToFile(String bucket, String key, Path destination) {
+        return s3.getObject(
+                GetObjectRequest.builder().bucket(bucket).key(key).build(),
+                AsyncResponseTransformer.toFile(destination)
+        );
+    }
+
+    public CompletableFuture<ListObjectsV2Response> listObjectsV2(String bucket) {
+        return s3.listObjectsV2(ListObjectsV2Request.builder().bucket(bucket).build());
+    }
+
+    public CompletableFuture<ListObjectsV2Response> listObjectsWithPrefix(String bucket, String prefix) {
+        return s3.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .build());
+    }
+
+    public CompletableFuture<ListObjectsV2Response> listObjectsWithDelimiter(String bucket, String prefix, String delimiter) {
+        return s3.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .delimiter(delimiter)
+                .build());
+    }
+
+    public CompletableFuture<ListObjectsV2Response> listObjectsPage(String bucket, String prefix, String continuationToken) {
+        return s3.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .continuationToken(continuationToken)
+                .build());
+    }
+
+    public CompletableFuture<CopyObjectResponse> copyObject(String sourceBucket, String sourceKey, String destBucket, String destKey) {
+        return s3.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(sourceBucket)
+                .sourceKey(sourceKey)
+                .destinationBucket(destBucket)
+                .destinationKey(destKey)
+                .build());
+    }
+
+    public CompletableFuture<CopyObjectResponse> copyObjectWithMetadata(String sourceBucket, String sourceKey, String destBucket, String destKey, Map<String, String> metadata) {
+        return s3.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(sourceBucket)
+                .sourceKey(sourceKey)
+                .destinationBucket(destBucket)
+                .destinationKey(destKey)
+                .metadataDirective(MetadataDirective.REPLACE)
+                .metadata(metadata)
+                .build());
+    }
+
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(String bucket, String key) {
+        return s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+
+    public CompletableFuture<UploadPartResponse> uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] data) {
+        return s3.uploadPart(UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .build(),
+                AsyncRequestBody.fromBytes(data));
+    }
+
+    public CompletableFuture<CompleteMultipartUploadResponse> completeMultipartUpload(String bucket, String key, String uploadId, List<CompletedPart> parts) {
+        return s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder()
+                        .parts(parts)
+                        .build())
+                .build());
+    }
+
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(String bucket, String key, String uploadId) {
+        return s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    public CompletableFuture<ListMultipartUploadsResponse> listMultipartUploads(String bucket) {
+        return s3.listMultipartUploads(ListMultipartUploadsRequest.builder()
+                .bucket(bucket)
+                .build());
+    }
+
+    public CompletableFuture<ListPartsResponse> listParts(String bucket, String key, String uploadId) {
+        return s3.listParts(ListPartsRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    public CompletableFuture<PutObjectTaggingResponse> putObjectTagging(String bucket, String key, Map<String, String> tags) {
+        List<Tag> tagList = tags.entrySet().stream()
+                .map(entry -> Tag.builder().key(entry.getKey()).value(entry.getValue()).build())
+                .collect(Collectors.toList());
+
+        return s3.putObjectTagging(PutObjectTaggingRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .tagging(Tagging.builder().tagSet(tagList).build())
+                .build());
+    }
+
+    public CompletableFuture<GetObjectTaggingResponse> getObjectTagging(String bucket, String key) {
+        return s3.getObjectTagging(GetObjectTaggingRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+
+    public CompletableFuture<DeleteObjectTaggingResponse> deleteObjectTagging(String bucket, String key) {
+        return s3.deleteObjectTagging(DeleteObjectTaggingRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+    }
+
+    public CompletableFuture<PutBucketVersioningResponse> putBucketVersioning(String bucket, BucketVersioningStatus status) {
+        return s3.putBucketVersioning(PutBucketVersioningRequest.builder()
+                .bucket(bucket)
+                .versioningConfiguration(VersioningConfiguration.builder()
+                        .status(status)
+                        .build())
+                .build());
+    }
+
+    public CompletableFuture<GetBucketVersioningResponse> getBucketVersioning(String bucket) {
+        return s3.getBucketVersioning(GetBucketVersioningRequest.builder()
+                .bucket(bucket)
+                .build());
+    }
+
+    public CompletableFuture<ListObjectVersionsResponse> listObjectVersions(String bucket, String prefix) {
+        return s3.listObjectVersions(ListObjectVersionsRequest.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .build());
+    }
+
+    public CompletableFuture<ResponseBytes<GetObjectResponse>> getObjectVersion(String bucket, String key, String versionId) {
+        return s3.getObject(
+                GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .versionId(versionId)
+                    .build(),
+                AsyncResponseTransformer.toBytes()
+        );
+    }
+
+    public CompletableFuture<DeleteObjectResponse> deleteObjectVersion(String bucket, String key, String versionId) {
+        return s3.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .versionId(versionId)
+                .build());
+    }
+
+    public void close() {
+        if (s3 != null) {
+            s3.close();
+        }
+    }
+}
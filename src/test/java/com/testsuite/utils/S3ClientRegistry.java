@@ -0,0 +1,157 @@
+package com.testsuite.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.regions.Region;
+
+public final class S3ClientRegistry {
+    private static final ConcurrentMap<ClientKey, S3Utilities> CLIENTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<ClientKey, S3AsyncUtilities> ASYNC_CLIENTS = new ConcurrentHashMap<>();
+
+    private static LocalS3Server localServer;
+    // the suite's client; its metrics are what s3MetricsFile exports when the registry is closed
+    private static volatile S3Utilities configured;
+
+    private S3ClientRegistry() {}
+
+    public static synchronized LocalS3Server localServer() {
+        if (localServer == null) {
+            try {
+                localServer = new LocalS3Server(Config.getInt("s3LocalPort", 0));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start local S3 server", e);
+            }
+            localServer.setLatency(Duration.ofMillis(Config.getInt("s3LocalLatencyMs", 0)),
+                    Duration.ofMillis(Config.getInt("s3LocalLatencyJitterMs", 0)));
+            localServer.setBandwidth(Config.getInt("s3LocalBandwidthBytesPerSec", 0));
+            localServer.setThrottling(Config.getInt("s3LocalThrottlePercent", 0) / 100.0, Config.getInt("s3LocalMaxRequestsPerSec", 0));
+        }
+        return localServer;
+    }
+
+    public static S3Utilities fromConfig() {
+        S3Utilities utils = get(Region.of(Config.get("awsRegion")), Config.get("awsKey"), Config.get("awsSecret"), configuredEndpoint());
+        configured = utils;
+        return utils;
+    }
+
+    // an unshared client for a test that changes client settings (caches, checksums, compression, ...) or
+    // needs its own connection pool and metrics; same region, credentials and endpoint as fromConfig().
+    // The caller closes it.
+    public static S3Utilities newClient(Consumer<S3Utilities> overrides) {
+        S3Utilities utils = new S3Utilities(Region.of(Config.get("awsRegion")), Config.get("awsKey"), Config.get("awsSecret"),
+                configuredEndpoint(), Config.getInt("s3MaxConnections", S3Utilities.DEFAULT_MAX_CONNECTIONS));
+        try {
+            overrides.accept(utils);
+        } catch (RuntimeException e) {
+            utils.close();
+            throw e;
+        }
+        return utils;
+    }
+
+    public static S3Utilities newClient() {
+        return newClient(utils -> {});
+    }
+
+    public static S3AsyncUtilities asyncFromConfig() {
+        return getAsync(Region.of(Config.get("awsRegion")), Config.get("awsKey"), Config.get("awsSecret"), configuredEndpoint());
+    }
+
+    public static S3Utilities get(Region region, String awsKey, String awsSecret) {
+        return get(region, awsKey, awsSecret, null);
+    }
+
+    public static S3Utilities get(Region region, String awsKey, String awsSecret, URI endpoint) {
+        ClientKey key = new ClientKey(region.id(), awsKey, awsSecret, endpoint == null ? "" : endpoint.toString());
+        S3Utilities existing = CLIENTS.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        // built and warmed outside the map so the warm-up burst never runs under a map lock; a racing
+        // caller's duplicate is closed, and concurrent callers may use the client while it warms up
+        S3Utilities created = new S3Utilities(region, awsKey, awsSecret, endpoint,
+                Config.getInt("s3MaxConnections", S3Utilities.DEFAULT_MAX_CONNECTIONS));
+        existing = CLIENTS.putIfAbsent(key, created);
+        if (existing != null) {
+            created.close();
+            return existing;
+        }
+        warmUp(created);
+        return created;
+    }
+
+    public static S3AsyncUtilities getAsync(Region region, String awsKey, String awsSecret, URI endpoint) {
+        ClientKey key = new ClientKey(region.id(), awsKey, awsSecret, endpoint == null ? "" : endpoint.toString());
+        return ASYNC_CLIENTS.computeIfAbsent(key, k -> new S3AsyncUtilities(region, awsKey, awsSecret, endpoint,
+                Config.getInt("s3MaxConcurrency", S3AsyncUtilities.DEFAULT_MAX_CONCURRENCY)));
+    }
+
+    public static synchronized void closeAll() {
+        String metricsFile = Config.get("s3MetricsFile");
+        S3Utilities suiteClient = configured;
+        if (suiteClient != null && metricsFile != null && !metricsFile.isBlank()) {
+            try {
+                suiteClient.metrics().writePrometheus(Path.of(metricsFile.trim()));
+            } catch (IOException e) {
+                System.err.println("Error writing S3 metrics: " + e.getMessage());
+            }
+        }
+        configured = null;
+        for (S3Utilities utils : CLIENTS.values()) {
+            try {
+                utils.close();
+            } catch (Exception e) {
+                System.err.println("Error closing S3 client: " + e.getMessage());
+            }
+        }
+        CLIENTS.clear();
+        for (S3AsyncUtilities utils : ASYNC_CLIENTS.values()) {
+            try {
+                utils.close();
+            } catch (Exception e) {
+                System.err.println("Error closing S3 async client: " + e.getMessage());
+            }
+        }
+        ASYNC_CLIENTS.clear();
+        if (localServer != null) {
+            localServer.close();
+            localServer = null;
+        }
+    }
+
+    // opt-in: s3WarmUpConnections > 0 pre-opens that many connections, using s3WarmUpBucket when set
+    private static void warmUp(S3Utilities utils) {
+        int connections = Config.getInt("s3WarmUpConnections", 0);
+        if (connections > 0) {
+            String bucket = Config.get("s3WarmUpBucket");
+            WarmUpResult result = utils.warmUp(bucket == null || bucket.isBlank() ? null : bucket.trim(), connections);
+            if (!result.isSuccessful()) {
+                System.err.println("Error warming up S3 client: " + result.failed() + " of " + result.connections() + " calls failed");
+            }
+        }
+    }
+
+    // s3Endpoint=local starts one in-process LocalS3Server for the whole run
+    private static URI configuredEndpoint() {
+        String endpoint = Config.get("s3Endpoint");
+        if (endpoint != null && endpoint.trim().equals("local")) {
+            return localServer().endpoint();
+        }
+        return endpoint == null || endpoint.isBlank() ? null : URI.create(endpoint.trim());
+    }
+
+    private record ClientKey(String region, String awsKey, String awsSecret, String endpoint) {
+        @Override
+        public String toString() {
+            return "ClientKey[region=" + region + ", awsKey=" + awsKey + ", endpoint=" + endpoint + "]";
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.testsuite.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.sun.net.httpserver.HttpServer;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+// Per-operation call, error, retry and byte counters plus latency histograms, collected by an
+// execution interceptor. Latency runs from the start of the call until the response is returned, which
+// for streaming GetObject is time to first byte rather than time to read the body.
+public class S3Metrics implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> START = new ExecutionAttribute<>("S3MetricsStart");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("S3MetricsAttempts");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private final List<Supplier<String>> sections = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START, System.nanoTime());
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        executionAttributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+        long sent = context.requestBody().flatMap(RequestBody::optionalContentLength)
+                .or(() -> context.httpRequest().firstMatchingHeader("Content-Length").map(Long::parseLong))
+                .orElse(0L);
+        operation(executionAttributes).bytesSent.add(sent);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        Operation op = complete(executionAttributes);
+        op.bytesReceived.add(bodyLength(context.httpRequest(), context.httpResponse()));
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Operation op = complete(executionAttributes);
+        op.errors.increment();
+        String code = context.exception() instanceof AwsServiceException ase && ase.awsErrorDetails() != null
+                && ase.awsErrorDetails().errorCode() != null
+                ? ase.awsErrorDetails().errorCode()
+                : context.exception().getClass().getSimpleName();
+        op.errorCodes.computeIfAbsent(code, c -> new LongAdder()).increment();
+    }
+
+    public Map<String, OperationStats> snapshot() {
+        Map<String, OperationStats> result = new TreeMap<>();
+        operations.forEach((name, op) -> {
+            LatencyHistogram h = op.latency.snapshot();
+            Map<String, Long> codes = new TreeMap<>();
+            op.errorCodes.forEach((code, n) -> codes.put(code, n.sum()));
+            result.put(name, new OperationStats(name, h.count(), op.errors.sum(), op.retries.sum(),
+                    op.bytesSent.sum(), op.bytesReceived.sum(), h.percentile(0.5), h.percentile(0.9),
+                    h.percentile(0.99), h.max(), codes));
+        });
+        return result;
+    }
+
+    // appends extra Prometheus text, e.g. gauges owned by another component, to every export
+    public void addSection(Supplier<String> section) {
+        sections.add(section);
+    }
+
+    public void reset() {
+        operations.clear();
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        Map<String, LatencyHistogram> latencies = new TreeMap<>();
+        operations.forEach((name, op) -> latencies.put(name, op.latency.snapshot()));
+
+        out.append("# HELP s3_client_request_duration_seconds S3 call latency\n");
+        out.append("# TYPE s3_client_request_duration_seconds summary\n");
+        latencies.forEach((name, h) -> {
+            for (double q : QUANTILES) {
+                out.append("s3_client_request_duration_seconds{operation=\"").append(name)
+                        .append("\",quantile=\"").append(q).append("\"} ").append(seconds(h.percentile(q))).append('\n');
+            }
+            out.append("s3_client_request_duration_seconds_sum{operation=\"").append(name).append("\"} ")
+                    .append(seconds(h.sum())).append('\n');
+            out.append("s3_client_request_duration_seconds_count{operation=\"").append(name).append("\"} ")
+                    .append(h.count()).append('\n');
+        });
+        counter(out, "s3_client_errors_total", "Failed S3 calls", op -> op.errors.sum());
+        counter(out, "s3_client_retries_total", "S3 call attempts beyond the first", op -> op.retries.sum());
+        counter(out, "s3_client_sent_bytes_total", "Request payload bytes sent, including retried attempts", op -> op.bytesSent.sum());
+        counter(out, "s3_client_received_bytes_total", "Response payload bytes received", op -> op.bytesReceived.sum());
+
+        out.append("# HELP s3_client_error_codes_total Failed S3 calls by error code\n");
+        out.append("# TYPE s3_client_error_codes_total counter\n");
+        new TreeMap<>(operations).forEach((name, op) -> new TreeMap<>(op.errorCodes).forEach((code, n) ->
+                out.append("s3_client_error_codes_total{operation=\"").append(name).append("\",code=\"")
+                        .append(code.replace("\"", "")).append("\"} ").append(n.sum()).append('\n')));
+        sections.forEach(section -> out.append(section.get()));
+        return out.toString();
+    }
+
+    public void writePrometheus(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, "s3-metrics-", ".tmp");
+        Files.writeString(tmp, toPrometheus());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // serves GET /metrics on the loopback interface; the caller stops the returned server
+    public HttpServer serve(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private Operation complete(ExecutionAttributes executionAttributes) {
+        Operation op = operation(executionAttributes);
+        Long start = executionAttributes.getAttribute(START);
+        if (start != null) {
+            op.latency.record((System.nanoTime() - start) / 1_000);
+        }
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        if (attempts != null && attempts > 1) {
+            op.retries.add(attempts - 1);
+        }
+        return op;
+    }
+
+    private Operation operation(ExecutionAttributes executionAttributes) {
+        String name = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operations.computeIfAbsent(name == null ? "Unknown" : name, n -> new Operation());
+    }
+
+    private void counter(StringBuilder out, String metric, String help, ToLongFunction<Operation> value) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(" counter\n");
+        new TreeMap<>(operations).forEach((name, op) ->
+                out.append(metric).append("{operation=\"").append(name).append("\"} ").append(value.applyAsLong(op)).append('\n'));
+    }
+
+    // HEAD, 204 and 304 responses have no body; a HEAD's Content-Length is the size of the object
+    private static long bodyLength(SdkHttpRequest request, SdkHttpResponse response) {
+        int status = response.statusCode();
+        if (request.method() == SdkHttpMethod.HEAD || status == 204 || status == 304) {
+            return 0;
+        }
+        return response.firstMatchingHeader("Content-Length").map(Long::parseLong).orElse(0L);
+    }
+
+    private static String seconds(long micros) {
+        return String.format(Locale.ROOT, "%.6f", micros / 1_000_000.0);
+    }
+
+    public record OperationStats(String operation, long calls, long errors, long retries, long bytesSent, long bytesReceived,
+                                 long p50Micros, long p90Micros, long p99Micros, long maxMicros, Map<String, Long> errorCodes) {}
+
+    private static final class Operation {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> errorCodes = new ConcurrentHashMap<>();
+    }
+}
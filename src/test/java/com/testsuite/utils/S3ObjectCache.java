@@ -0,0 +1,301 @@
+package com.testsuite.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+// Read-through cache in front of GetObject. Small objects live in a byte-bounded in-memory LRU,
+// larger ones in a byte-bounded LRU directory. Entries older than the TTL are revalidated with
+// If-None-Match, so an unchanged object costs one 304 round trip and no payload. Versioned
+// entries are immutable and never revalidated.
+public class S3ObjectCache {
+    private final S3Utilities s3Utils;
+    private final long maxMemoryObjectBytes;
+    private final Tier memory;
+    private final Tier disk;
+    private final Path directory;
+    private final long ttlNanos;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public S3ObjectCache(S3Utilities s3Utils, long maxMemoryBytes, long maxMemoryObjectBytes, Path directory, long maxDiskBytes, Duration ttl) {
+        this.s3Utils = s3Utils;
+        this.maxMemoryObjectBytes = maxMemoryObjectBytes;
+        this.memory = new Tier(maxMemoryBytes);
+        this.disk = new Tier(maxDiskBytes);
+        this.directory = directory;
+        this.ttlNanos = ttl.toNanos();
+        try {
+            Files.createDirectories(directory);
+            // entries from a previous run are not indexed, so they would never be evicted
+            try (var stale = Files.list(directory)) {
+                for (Path p : (Iterable<Path>) stale.filter(f -> f.toString().endsWith(".obj"))::iterator) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public InputStream get(String bucket, String key) throws IOException {
+        return get(bucket, key, null);
+    }
+
+    public InputStream get(String bucket, String key, String versionId) throws IOException {
+        CacheKey cacheKey = new CacheKey(bucket, key, versionId);
+        Tier tier = memory;
+        Entry cached = memory.get(cacheKey);
+        if (cached == null) {
+            tier = disk;
+            cached = disk.get(cacheKey);
+        }
+        if (cached != null) {
+            if (versionId != null || System.nanoTime() - cached.validatedAt < ttlNanos) {
+                InputStream in = tier.open(cacheKey, cached);
+                if (in != null) {
+                    hits.incrementAndGet();
+                    return in;
+                }
+            } else {
+                ResponseInputStream<GetObjectResponse> changed = revalidate(cacheKey, cached);
+                if (changed != null) {
+                    misses.incrementAndGet();
+                    return store(cacheKey, changed);
+                }
+                InputStream in = tier.open(cacheKey, cached);
+                if (in != null) {
+                    revalidations.incrementAndGet();
+                    return in;
+                }
+            }
+        }
+        // not cached, or evicted by another thread before it could be opened
+        misses.incrementAndGet();
+        ResponseInputStream<GetObjectResponse> response = versionId != null
+                ? s3Utils.getObjectVersionAsStream(bucket, key, versionId)
+                : s3Utils.getObjectWithIfNoneMatch(bucket, key, null);
+        return store(cacheKey, response);
+    }
+
+    public void invalidate(String bucket, String key) {
+        memory.removeIf(k -> k.bucket().equals(bucket) && k.key().equals(key));
+        disk.removeIf(k -> k.bucket().equals(bucket) && k.key().equals(key));
+    }
+
+    public void clear() {
+        memory.removeIf(k -> true);
+        disk.removeIf(k -> true);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), revalidations.get(), misses.get(), memory.bytes(), disk.bytes());
+    }
+
+    // null when the cached copy is still current, otherwise the new object's response
+    private ResponseInputStream<GetObjectResponse> revalidate(CacheKey cacheKey, Entry cached) throws IOException {
+        ResponseInputStream<GetObjectResponse> response;
+        try {
+            response = s3Utils.getObjectWithIfNoneMatch(cacheKey.bucket(), cacheKey.key(), cached.eTag);
+        } catch (S3Exception e) {
+            if (e.statusCode() != 304) {
+                throw e;
+            }
+            cached.validatedAt = System.nanoTime();
+            return null;
+        }
+        if (response.response().sdkHttpResponse().statusCode() == 304) {
+            response.close();
+            cached.validatedAt = System.nanoTime();
+            return null;
+        }
+        return response;
+    }
+
+    private InputStream store(CacheKey cacheKey, ResponseInputStream<GetObjectResponse> response) throws IOException {
+        GetObjectResponse meta = response.response();
+        long size = meta.contentLength() == null ? -1 : meta.contentLength();
+        Entry entry;
+        try (response) {
+            if (size >= 0 && size <= maxMemoryObjectBytes) {
+                entry = new Entry(meta.eTag(), response.readAllBytes(), null);
+            } else {
+                // every stored version gets its own file, so replacing an entry never deletes the new download
+                Path file = Files.createTempFile(directory, filePrefix(cacheKey) + "-", ".obj");
+                try {
+                    Files.copy(response, file, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+                entry = new Entry(meta.eTag(), null, file);
+            }
+        }
+        if (entry.data != null) {
+            disk.remove(cacheKey);
+            return memory.put(cacheKey, entry);
+        }
+        memory.remove(cacheKey);
+        return disk.put(cacheKey, entry);
+    }
+
+    private static String filePrefix(CacheKey cacheKey) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            String id = cacheKey.bucket() + "\n" + cacheKey.key() + "\n" + (cacheKey.versionId() == null ? "" : cacheKey.versionId());
+            return HexFormat.of().formatHex(sha.digest(id.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Stats(long hits, long revalidations, long misses, long memoryBytes, long diskBytes) {}
+
+    private record CacheKey(String bucket, String key, String versionId) {}
+
+    private static final class Entry {
+        private final String eTag;
+        private final byte[] data;
+        private final Path file;
+        private volatile long validatedAt = System.nanoTime();
+
+        Entry(String eTag, byte[] data, Path file) {
+            this.eTag = eTag;
+            this.data = data;
+            this.file = file;
+        }
+
+        long size() throws IOException {
+            return data != null ? data.length : Files.size(file);
+        }
+
+        InputStream open() throws IOException {
+            return data != null ? new ByteArrayInputStream(data) : Files.newInputStream(file);
+        }
+
+        // for an entry that is not cached: the file goes away once the reader is done with it
+        InputStream openDetached() throws IOException {
+            if (data != null) {
+                return new ByteArrayInputStream(data);
+            }
+            return new FilterInputStream(Files.newInputStream(file)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        discard();
+                    }
+                }
+            };
+        }
+
+        void discard() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.err.println("Error deleting cached object " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class Tier {
+        private final long maxBytes;
+        private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Entry, Long> sizes = new IdentityHashMap<>();
+        private long bytes;
+
+        Tier(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized Entry get(CacheKey key) {
+            return entries.get(key);
+        }
+
+        // opens the entry under the lock so eviction, here or in another thread, can't delete it first;
+        // an entry larger than the whole tier is not cached and is served as a pass-through stream
+        synchronized InputStream put(CacheKey key, Entry entry) throws IOException {
+            long size = entry.size();
+            if (size > maxBytes) {
+                Entry previous = entries.remove(key);
+                if (previous != null) {
+                    release(previous);
+                }
+                return entry.openDetached();
+            }
+            InputStream in = entry.open();
+            Entry previous = entries.put(key, entry);
+            if (previous != null && previous != entry) {
+                release(previous);
+            }
+            sizes.put(entry, size);
+            bytes += size;
+            Iterator<Map.Entry<CacheKey, Entry>> it = entries.entrySet().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                Entry eldest = it.next().getValue();
+                it.remove();
+                release(eldest);
+            }
+            return in;
+        }
+
+        // null when the entry was evicted or replaced since it was looked up
+        synchronized InputStream open(CacheKey key, Entry entry) throws IOException {
+            return entries.get(key) == entry ? entry.open() : null;
+        }
+
+        synchronized void remove(CacheKey key) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                release(removed);
+            }
+        }
+
+        synchronized void removeIf(Predicate<CacheKey> filter) {
+            Iterator<Map.Entry<CacheKey, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<CacheKey, Entry> e = it.next();
+                if (filter.test(e.getKey())) {
+                    it.remove();
+                    release(e.getValue());
+                }
+            }
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        private void release(Entry entry) {
+            Long size = sizes.remove(entry);
+            if (size != null) {
+                bytes -= size;
+            }
+            entry.discard();
+        }
+    }
+}
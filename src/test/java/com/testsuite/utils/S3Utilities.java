@@ -2,19 +2,38 @@ package com.testsuite.utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.checksums.Algorithm;
+import software.amazon.awssdk.core.checksums.SdkChecksum;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.BucketCannedACL;
@@ -23,6 +42,8 @@ import software.amazon.awssdk.services.s3.model.BucketLoggingStatus;
 import software.amazon.awssdk.services.s3.model.BucketVersioningStatus;
 import software.amazon.awssdk.services.s3.model.CORSConfiguration;
 import software.amazon.awssdk.services.s3.model.CORSRule;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
@@ -33,10 +54,16 @@ import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.CreateBucketResponse;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteBucketCorsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteBucketCorsResponse;
 import software.amazon.awssdk.services.s3.model.DeleteBucketLifecycleRequest;
 import software.amazon.awssdk.services.s3.model.DeleteBucketLifecycleResponse;
+import software.amazon.awssdk.services.s3.model.DeleteBucketPolicyRequest;
+import software.amazon.awssdk.services.s3.model.DeleteBucketPolicyResponse;
 import software.amazon.awssdk.services.s3.model.DeleteBucketRequest;
 import software.amazon.awssdk.services.s3.model.DeleteBucketResponse;
+import software.amazon.awssdk.services.s3.model.DeleteBucketTaggingRequest;
+import software.amazon.awssdk.services.s3.model.DeleteBucketTaggingResponse;
 import software.amazon.awssdk.services.s3.model.DeleteBucketWebsiteRequest;
 import software.amazon.awssdk.services.s3.model.DeleteBucketWebsiteResponse;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
@@ -93,6 +120,7 @@ import software.amazon.awssdk.services.s3.model.MetadataDirective;
 import software.amazon.awssdk.services.s3.model.ObjectOwnership;
 import software.amazon.awssdk.services.s3.model.OwnershipControls;
 import software.amazon.awssdk.services.s3.model.OwnershipControlsRule;
+import software.amazon.awssdk.services.s3.model.Part;
 import software.amazon.awssdk.services.s3.model.PublicAccessBlockConfiguration;
 import software.amazon.awssdk.services.s3.model.PutBucketAclRequest;
 import software.amazon.awssdk.services.s3.model.PutBucketAclResponse;
@@ -137,22 +165,161 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 public class S3Utilities {
+    public static final int DEFAULT_MAX_CONNECTIONS = 50;
+    public static final int DEFAULT_DELETE_WORKERS = 8;
+    public static final int DEFAULT_SYNC_WORKERS = 16;
+    public static final long DEFAULT_MULTIPART_COPY_THRESHOLD = 128L * 1024 * 1024;
+
+    private final Region region;
+    private final StaticCredentialsProvider credentialsProvider;
+    private final URI endpoint;
+    private final boolean forcePathStyle;
+    private final int maxConnections;
     private final S3Client s3;
-    private final S3Presigner presigner;
+    private final S3Waiters waiters;
+    private final S3Metrics metrics = new S3Metrics();
+    private final HeadCache headCache = new HeadCache(Duration.ofMillis(Config.getInt("s3HeadCacheTtlMs", 0)));
+    private volatile S3Presigner presigner;
+    private final PresignedUrlCache presignedUrls = new PresignedUrlCache();
+    private volatile int deleteWorkers = Config.getInt("s3DeleteWorkers", DEFAULT_DELETE_WORKERS);
+    private volatile int syncWorkers = Config.getInt("s3SyncWorkers", DEFAULT_SYNC_WORKERS);
+    private volatile Duration purgeProgressInterval = Duration.ofMillis(Config.getInt("s3PurgeProgressMs", 5000));
+    private volatile long multipartCopyThreshold = DEFAULT_MULTIPART_COPY_THRESHOLD;
+    private volatile ChecksumAlgorithm checksumAlgorithm = checksumAlgorithmFromConfig();
+    private volatile boolean verifyChecksums = Config.getBoolean("s3VerifyChecksums", true);
+    private volatile boolean compression = Config.getBoolean("s3Compression", false);
 
     public S3Utilities(Region region, String awsKey, String awsSecret) {
+        this(region, awsKey, awsSecret, null, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    // path-style addressing is the default with an endpoint override, since local stand-ins rarely resolve
+    // bucket subdomains; s3ForcePathStyle=false keeps virtual-hosted style
+    public S3Utilities(Region region, String awsKey, String awsSecret, URI endpoint, int maxConnections) {
+        this(region, awsKey, awsSecret, endpoint, maxConnections, endpoint != null && Config.getBoolean("s3ForcePathStyle", true));
+    }
+
+    public S3Utilities(Region region, String awsKey, String awsSecret, URI endpoint, int maxConnections, boolean forcePathStyle) {
         AwsBasicCredentials awsCreds = AwsBasicCredentials.create(awsKey, awsSecret);
-        StaticCredentialsProvider credentialsProvider = StaticCredentialsProvider.create(awsCreds);
-        
-        this.s3 = S3Client.builder()
-                .region(region)
-                .credentialsProvider(credentialsProvider)
-                .build();
-                
-        this.presigner = S3Presigner.builder()
+        this.region = region;
+        this.credentialsProvider = StaticCredentialsProvider.create(awsCreds);
+        this.endpoint = endpoint;
+        this.forcePathStyle = forcePathStyle;
+        this.maxConnections = maxConnections;
+
+        boolean adaptive = Config.getBoolean("s3AdaptiveConcurrency", true);
+        S3ClientBuilder builder = S3Client.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
-                .build();
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .tcpKeepAlive(true))
+                .overrideConfiguration(o -> {
+                    o.addExecutionInterceptor(metrics);
+                    if (adaptive) {
+                        o.addExecutionInterceptor(AdaptiveConcurrencyLimiter.shared());
+                    }
+                    o.addExecutionInterceptor(headCache);
+                    o.addExecutionInterceptor(BucketConfigTracker.shared());
+                });
+        if (endpoint != null) {
+            builder.endpointOverride(endpoint);
+        }
+        builder.forcePathStyle(forcePathStyle);
+        this.s3 = builder.build();
+        if (adaptive) {
+            metrics.addSection(AdaptiveConcurrencyLimiter.shared()::toPrometheus);
+        }
+        this.waiters = new S3Waiters(this);
+    }
+
+    private S3Presigner presigner() {
+        S3Presigner p = presigner;
+        if (p == null) {
+            synchronized (this) {
+                p = presigner;
+                if (p == null) {
+                    S3Presigner.Builder builder = S3Presigner.builder()
+                            .region(region)
+                            .credentialsProvider(credentialsProvider);
+                    if (endpoint != null) {
+                        builder.endpointOverride(endpoint);
+                    }
+                    builder.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(forcePathStyle).build());
+                    p = builder.build();
+                    presigner = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    public WarmUpResult warmUp(int connections) {
+        return warmUp(null, connections);
+    }
+
+    // Opens up to `connections` pooled connections at once so later calls skip DNS, the TCP/TLS handshake
+    // and SDK initialization. Uses headBucket on the given bucket (bypassing the HEAD cache), or listBuckets
+    // when bucket is null. Service errors such as 403/404 still leave a live connection behind.
+    public WarmUpResult warmUp(String bucket, int connections) {
+        int n = Math.max(1, Math.min(connections, maxConnections));
+        long start = System.nanoTime();
+        Runnable call = bucket == null
+                ? s3::listBuckets
+                : () -> s3.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+        int failed = 0;
+        // one serial call loads the marshallers, endpoint rules and signer before the parallel burst
+        if (!warmUpCall(call)) {
+            failed++;
+        }
+        presigner().presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(1))
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket == null ? "warm-up" : bucket).key("warm-up").build())
+                .build());
+        ChecksumAlgorithm algorithm = checksumAlgorithm;
+        if (algorithm != null) {
+            SdkChecksum.forAlgorithm(Algorithm.fromValue(algorithm.toString())).update(new byte[1]);
+        }
+        if (n > 1) {
+            ExecutorService pool = DaemonThreads.fixedPool("s3-warm-up", n);
+            // every call waits on the latch so all n requests hold a connection at the same time
+            CountDownLatch go = new CountDownLatch(1);
+            try {
+                List<Future<Boolean>> calls = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    calls.add(pool.submit(() -> {
+                        go.await();
+                        return warmUpCall(call);
+                    }));
+                }
+                go.countDown();
+                for (Future<Boolean> f : calls) {
+                    if (!f.get()) {
+                        failed++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted during client warm-up", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Client warm-up failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        return new WarmUpResult(n, failed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static boolean warmUpCall(Runnable call) {
+        try {
+            call.run();
+            return true;
+        } catch (AwsServiceException e) {
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Error warming up S3 connection: " + e.getMessage());
+            return false;
+        }
     }
 
     public CreateBucketResponse createBucket(String bucket) {
@@ -160,19 +327,26 @@ public class S3Utilities {
     }
 
     public PutObjectResponse putObject(String bucket, String key, byte[] content, String contentType) {
+        if (compression && Compression.isCompressible(contentType, null)) {
+            return putCompressed(bucket, key, content, contentType, null);
+        }
         return s3.putObject(
-                PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).checksumAlgorithm(checksumAlgorithm).build(),
                 RequestBody.fromBytes(content)
         );
     }
 
     public PutObjectResponse putObjectWithMetadata(String bucket, String key, byte[] content, String contentType, Map<String, String> metadata) {
+        if (compression && Compression.isCompressible(contentType, null)) {
+            return putCompressed(bucket, key, content, contentType, metadata);
+        }
         return s3.putObject(
                 PutObjectRequest.builder()
                     .bucket(bucket)
                     .key(key)
                     .contentType(contentType)
                     .metadata(metadata)
+                    .checksumAlgorithm(checksumAlgorithm)
                     .build(),
                 RequestBody.fromBytes(content)
         );
@@ -185,6 +359,7 @@ public class S3Utilities {
                     .key(key)
                     .contentType(contentType)
                     .storageClass(storageClass)
+                    .checksumAlgorithm(checksumAlgorithm)
                     .build(),
                 RequestBody.fromBytes(content)
         );
@@ -197,42 +372,126 @@ public class S3Utilities {
                     .key(key)
                     .contentType(contentType)
                     .serverSideEncryption(ServerSideEncryption.AES256)
+                    .checksumAlgorithm(checksumAlgorithm)
                     .build(),
                 RequestBody.fromBytes(content)
         );
     }
 
     public PutObjectResponse putFileObject(String bucket, String key, Path file, String contentType) throws IOException {
-        byte[] bytes = Files.readAllBytes(file);
+        if (compression && Compression.isCompressible(contentType, file)) {
+            Path compressed = Compression.gzip(file);
+            try {
+                return s3.putObject(
+                        PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentEncoding(Compression.ENCODING)
+                            .metadata(Compression.metadata(null, Files.size(file)))
+                            .contentLength(Files.size(compressed))
+                            .checksumAlgorithm(checksumAlgorithm)
+                            .build(),
+                        RequestBody.fromFile(compressed)
+                );
+            } finally {
+                Files.deleteIfExists(compressed);
+            }
+        }
+        return s3.putObject(
+                PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength(Files.size(file))
+                    .checksumAlgorithm(checksumAlgorithm)
+                    .build(),
+                RequestBody.fromFile(file)
+        );
+    }
+
+    private PutObjectResponse putCompressed(String bucket, String key, byte[] content, String contentType, Map<String, String> metadata) {
         return s3.putObject(
-                PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
-                RequestBody.fromBytes(bytes)
+                PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType)
+                    .contentEncoding(Compression.ENCODING)
+                    .metadata(Compression.metadata(metadata, content.length))
+                    .checksumAlgorithm(checksumAlgorithm)
+                    .build(),
+                RequestBody.fromBytes(Compression.gzip(content))
         );
     }
 
+    // when on, text-like uploads through putObject, putObjectWithMetadata and putFileObject are gzipped
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
     public HeadBucketResponse headBucket(String bucket) {
-        return s3.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+        return headCache.get(bucket, null, null,
+                () -> s3.headBucket(HeadBucketRequest.builder().bucket(bucket).build()));
     }
 
     public HeadObjectResponse headObject(String bucket, String key) {
+        return headCache.get(bucket, key, null,
+                () -> s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()));
+    }
+
+    public HeadObjectResponse headObjectVersion(String bucket, String key, String versionId) {
+        return headCache.get(bucket, key, versionId,
+                () -> s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).versionId(versionId).build()));
+    }
+
+    // 0 disables caching; concurrent identical HEADs are still collapsed into one call
+    public void setHeadCacheTtl(Duration ttl) {
+        headCache.setTtl(ttl);
+    }
+
+    public void invalidateHeadCache(String bucket, String prefix) {
+        headCache.invalidatePrefix(bucket, prefix);
+    }
+
+    // always a request of its own: bypasses the HEAD cache and its single-flight collapsing
+    public HeadObjectResponse headObjectUncached(String bucket, String key) {
         return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
     }
 
+    public HeadObjectResponse headObjectPart(String bucket, String key, int partNumber) {
+        return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).partNumber(partNumber).build());
+    }
+
     public DeleteObjectResponse deleteObject(String bucket, String key) {
         return s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
     }
 
-    public void emptyBucket(String bucket) {
-        String token = null;
-        do {
-            ListObjectsV2Response page = s3.listObjectsV2(
-                    ListObjectsV2Request.builder().bucket(bucket).continuationToken(token).build()
-            );
-            for (S3Object obj : page.contents()) {
-                s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(obj.key()).build());
+    public DeleteSummary emptyBucket(String bucket) {
+        return deletePrefix(bucket, null, deleteWorkers);
+    }
+
+    public DeleteSummary deletePrefix(String bucket, String prefix) {
+        return deletePrefix(bucket, prefix, deleteWorkers);
+    }
+
+    public DeleteSummary deletePrefix(String bucket, String prefix, int workers) {
+        try (BatchDeleter deleter = new BatchDeleter(s3, bucket, workers)) {
+            var pages = s3.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .maxKeys(BatchDeleter.MAX_BATCH_SIZE)
+                    .build());
+            for (ListObjectsV2Response page : pages) {
+                for (S3Object obj : page.contents()) {
+                    deleter.add(obj.key(), null);
+                }
             }
-            token = page.nextContinuationToken();
-        } while (token != null);
+            return deleter.finish();
+        }
+    }
+
+    public void setDeleteWorkers(int deleteWorkers) {
+        this.deleteWorkers = Math.max(1, deleteWorkers);
     }
 
     public DeleteBucketResponse deleteBucket(String bucket) {
@@ -266,22 +525,68 @@ public class S3Utilities {
                 .build());
     }
 
+    public Stream<S3Object> streamObjects(String bucket, String prefix) {
+        PrefetchingObjectIterator objects = iterateObjects(ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .build());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(objects, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(objects::close);
+    }
+
+    PrefetchingObjectIterator iterateObjects(ListObjectsV2Request request) {
+        return new PrefetchingObjectIterator(s3, request);
+    }
+
+    S3Client client() {
+        return s3;
+    }
+
     public ResponseInputStream<GetObjectResponse> getObjectAsStream(String bucket, String key) {
+        return Compression.decode(s3.getObject(
+            GetObjectRequest.builder().bucket(bucket).key(key).checksumMode(checksumMode()).build()
+        ));
+    }
+
+    public ResponseInputStream<GetObjectResponse> getObjectRange(String bucket, String key, long start, long end) {
         return s3.getObject(
-            GetObjectRequest.builder().bucket(bucket).key(key).build()
+            GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .range("bytes=" + start + "-" + end)
+                .checksumMode(checksumMode())
+                .build()
         );
     }
 
-    public ResponseInputStream<GetObjectResponse> getObjectRange(String bucket, String key, long start, long end) {
+    public ResponseInputStream<GetObjectResponse> getObjectRange(String bucket, String key, long start, long end, String ifMatch) {
         return s3.getObject(
             GetObjectRequest.builder()
                 .bucket(bucket)
                 .key(key)
                 .range("bytes=" + start + "-" + end)
+                .ifMatch(ifMatch)
+                .checksumMode(checksumMode())
                 .build()
         );
     }
 
+    public HeadObjectResponse downloadToFile(String bucket, String key, Path destination, int parallelism) throws IOException {
+        return new ParallelDownloader(this, parallelism).download(bucket, key, destination);
+    }
+
+    public SyncSummary syncUp(Path dir, String bucket, String prefix) throws IOException {
+        return new DirectorySync(this, syncWorkers).syncUp(dir, bucket, prefix);
+    }
+
+    public SyncSummary syncDown(String bucket, String prefix, Path dir) throws IOException {
+        return new DirectorySync(this, syncWorkers).syncDown(bucket, prefix, dir);
+    }
+
+    public void setSyncWorkers(int syncWorkers) {
+        this.syncWorkers = Math.max(1, syncWorkers);
+    }
+
     public PutBucketVersioningResponse putBucketVersioning(String bucket, BucketVersioningStatus status) {
         return s3.putBucketVersioning(PutBucketVersioningRequest.builder()
                 .bucket(bucket)
@@ -359,6 +664,12 @@ public class S3Utilities {
                 .build());
     }
 
+    public DeleteBucketCorsResponse deleteBucketCors(String bucket) {
+        return s3.deleteBucketCors(DeleteBucketCorsRequest.builder()
+                .bucket(bucket)
+                .build());
+    }
+
     public PutBucketWebsiteResponse putBucketWebsite(String bucket, String indexDocument, String errorDocument) {
         WebsiteConfiguration.Builder configBuilder = WebsiteConfiguration.builder()
                 .indexDocument(IndexDocument.builder().suffix(indexDocument).build());
@@ -434,6 +745,12 @@ public class S3Utilities {
                 .build());
     }
 
+    public DeleteBucketTaggingResponse deleteBucketTagging(String bucket) {
+        return s3.deleteBucketTagging(DeleteBucketTaggingRequest.builder()
+                .bucket(bucket)
+                .build());
+    }
+
     public PutObjectTaggingResponse putObjectTagging(String bucket, String key, Map<String, String> tags) {
         List<Tag> tagList = tags.entrySet().stream()
                 .map(entry -> Tag.builder().key(entry.getKey()).value(entry.getValue()).build())
@@ -464,17 +781,33 @@ public class S3Utilities {
         return s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
                 .bucket(bucket)
                 .key(key)
+                .checksumAlgorithm(checksumAlgorithm)
+                .build());
+    }
+
+    public CreateMultipartUploadResponse createMultipartUpload(String bucket, String key, String contentType, Map<String, String> metadata) {
+        return s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .metadata(metadata)
+                .checksumAlgorithm(checksumAlgorithm)
                 .build());
     }
 
     public UploadPartResponse uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] data) {
+        return uploadPart(bucket, key, uploadId, partNumber, RequestBody.fromBytes(data));
+    }
+
+    public UploadPartResponse uploadPart(String bucket, String key, String uploadId, int partNumber, RequestBody body) {
         return s3.uploadPart(UploadPartRequest.builder()
                 .bucket(bucket)
                 .key(key)
                 .uploadId(uploadId)
                 .partNumber(partNumber)
+                .checksumAlgorithm(checksumAlgorithm)
                 .build(),
-                RequestBody.fromBytes(data));
+                body);
     }
 
     public CompleteMultipartUploadResponse completeMultipartUpload(String bucket, String key, String uploadId, List<CompletedPart> parts) {
@@ -483,11 +816,39 @@ public class S3Utilities {
                 .key(key)
                 .uploadId(uploadId)
                 .multipartUpload(CompletedMultipartUpload.builder()
-                        .parts(parts)
+                        .parts(withPartChecksums(bucket, key, uploadId, parts))
                         .build())
                 .build());
     }
 
+    // an upload created with a checksum algorithm must list every part's checksum on completion
+    private List<CompletedPart> withPartChecksums(String bucket, String key, String uploadId, List<CompletedPart> parts) {
+        if (checksumAlgorithm == null || parts.stream().allMatch(S3Utilities::hasChecksum)) {
+            return parts;
+        }
+        Map<Integer, Part> uploaded = new HashMap<>();
+        s3.listPartsPaginator(ListPartsRequest.builder().bucket(bucket).key(key).uploadId(uploadId).build())
+                .parts()
+                .forEach(part -> uploaded.put(part.partNumber(), part));
+        return parts.stream().map(part -> {
+            Part listed = uploaded.get(part.partNumber());
+            if (hasChecksum(part) || listed == null) {
+                return part;
+            }
+            return part.toBuilder()
+                    .checksumCRC32(listed.checksumCRC32())
+                    .checksumCRC32C(listed.checksumCRC32C())
+                    .checksumSHA1(listed.checksumSHA1())
+                    .checksumSHA256(listed.checksumSHA256())
+                    .build();
+        }).collect(Collectors.toList());
+    }
+
+    private static boolean hasChecksum(CompletedPart part) {
+        return part.checksumCRC32() != null || part.checksumCRC32C() != null
+                || part.checksumSHA1() != null || part.checksumSHA256() != null;
+    }
+
     public AbortMultipartUploadResponse abortMultipartUpload(String bucket, String key, String uploadId) {
         return s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
                 .bucket(bucket)
@@ -511,6 +872,16 @@ public class S3Utilities {
                 .build());
     }
 
+    public CopyObjectResponse copyObjectIfMatch(String sourceBucket, String sourceKey, String destBucket, String destKey, String eTag) {
+        return s3.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(sourceBucket)
+                .sourceKey(sourceKey)
+                .destinationBucket(destBucket)
+                .destinationKey(destKey)
+                .copySourceIfMatch(eTag)
+                .build());
+    }
+
     public CopyObjectResponse copyObjectWithMetadata(String sourceBucket, String sourceKey, String destBucket, String destKey, Map<String, String> metadata) {
         return s3.copyObject(CopyObjectRequest.builder()
                 .sourceBucket(sourceBucket)
@@ -522,7 +893,75 @@ public class S3Utilities {
                 .build());
     }
 
+    public CopyResult copyLargeObject(String sourceBucket, String sourceKey, String destBucket, String destKey, int parallelism) {
+        return copyLarge(sourceBucket, sourceKey, destBucket, destKey, null, parallelism);
+    }
+
+    public CopyResult copyLargeObjectWithMetadata(String sourceBucket, String sourceKey, String destBucket, String destKey, Map<String, String> metadata, int parallelism) {
+        return copyLarge(sourceBucket, sourceKey, destBucket, destKey, metadata == null ? Map.of() : metadata, parallelism);
+    }
+
+    private CopyResult copyLarge(String sourceBucket, String sourceKey, String destBucket, String destKey, Map<String, String> metadata, int parallelism) {
+        HeadObjectResponse source = headObject(sourceBucket, sourceKey);
+        if (source.contentLength() < multipartCopyThreshold) {
+            CopyObjectResponse res = metadata == null
+                    ? copyObject(sourceBucket, sourceKey, destBucket, destKey)
+                    : copyObjectWithMetadata(sourceBucket, sourceKey, destBucket, destKey, metadata);
+            return new CopyResult(res.copyObjectResult().eTag(), res.versionId(), false);
+        }
+        CompleteMultipartUploadResponse res = new ParallelCopier(s3, parallelism)
+                .copy(sourceBucket, sourceKey, destBucket, destKey, source, metadata);
+        return new CopyResult(res.eTag(), res.versionId(), true);
+    }
+
+    public void setMultipartCopyThreshold(long multipartCopyThreshold) {
+        this.multipartCopyThreshold = multipartCopyThreshold;
+    }
+
+    // null sends no additional checksum on uploads
+    public void setChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+    }
+
+    public void setVerifyChecksums(boolean verifyChecksums) {
+        this.verifyChecksums = verifyChecksums;
+    }
+
+    private ChecksumMode checksumMode() {
+        return verifyChecksums ? ChecksumMode.ENABLED : null;
+    }
+
+    private static ChecksumAlgorithm checksumAlgorithmFromConfig() {
+        String name = Config.get("s3ChecksumAlgorithm");
+        if (name == null || name.isBlank() || name.trim().equalsIgnoreCase("NONE")) {
+            return null;
+        }
+        ChecksumAlgorithm algorithm = ChecksumAlgorithm.fromValue(name.trim().toUpperCase());
+        if (algorithm == ChecksumAlgorithm.UNKNOWN_TO_SDK_VERSION) {
+            throw new IllegalArgumentException("Unsupported s3ChecksumAlgorithm: " + name);
+        }
+        return algorithm;
+    }
+
     public String generatePresignedGetUrl(String bucket, String key, Duration expiration) {
+        return presignedUrls.get("GET", bucket, key, expiration, () -> presignGet(bucket, key, expiration));
+    }
+
+    public String generatePresignedPutUrl(String bucket, String key, Duration expiration) {
+        return presignedUrls.get("PUT", bucket, key, expiration, () -> presignPut(bucket, key, expiration));
+    }
+
+    public Map<String, String> generatePresignedGetUrls(String bucket, List<String> keys, Duration expiration) {
+        return keys.parallelStream().collect(Collectors.toMap(key -> key,
+                key -> generatePresignedGetUrl(bucket, key, expiration), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public Map<String, String> generatePresignedPutUrls(String bucket, List<String> keys, Duration expiration) {
+        return keys.parallelStream().collect(Collectors.toMap(key -> key,
+                key -> generatePresignedPutUrl(bucket, key, expiration), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private String presignGet(String bucket, String key, Duration expiration) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucket)
                 .key(key)
@@ -533,10 +972,10 @@ public class S3Utilities {
                 .getObjectRequest(getObjectRequest)
                 .build();
 
-        return presigner.presignGetObject(presignRequest).url().toString();
+        return presigner().presignGetObject(presignRequest).url().toString();
     }
 
-    public String generatePresignedPutUrl(String bucket, String key, Duration expiration) {
+    private String presignPut(String bucket, String key, Duration expiration) {
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                 .bucket(bucket)
                 .key(key)
@@ -547,7 +986,7 @@ public class S3Utilities {
                 .putObjectRequest(putObjectRequest)
                 .build();
 
-        return presigner.presignPutObject(presignRequest).url().toString();
+        return presigner().presignPutObject(presignRequest).url().toString();
     }
 
     public String generateRandomBucketName() {
@@ -555,21 +994,15 @@ public class S3Utilities {
     }
 
     public void waitForBucketExists(String bucket) {
-        long[] delays = {150, 300, 600, 1000};
-        long startTime = System.currentTimeMillis();
-        long timeout = 3000;
-        int i = 0;
-        while (System.currentTimeMillis() - startTime < timeout) {
-            try {
-                headBucket(bucket);
-                return;
-            } catch (Exception ignored) {}
-            long delay = (i < delays.length) ? delays[i] : delays[delays.length - 1];
-            long end = System.currentTimeMillis() + delay;
-            while (System.currentTimeMillis() < end) {
-            }
-            i++;
-        }
+        waiters.waitForBucketExists(bucket);
+    }
+
+    public S3Waiters waiters() {
+        return waiters;
+    }
+
+    public S3Metrics metrics() {
+        return metrics;
     }
 
     public PutBucketPolicyResponse putBucketPolicy(String bucketName, String policy) {
@@ -587,6 +1020,13 @@ public class S3Utilities {
         return s3.getBucketPolicy(request);
     }
 
+    public DeleteBucketPolicyResponse deleteBucketPolicy(String bucketName) {
+        DeleteBucketPolicyRequest request = DeleteBucketPolicyRequest.builder()
+                .bucket(bucketName)
+                .build();
+        return s3.deleteBucketPolicy(request);
+    }
+
     public PutBucketAclResponse putBucketAcl(String bucketName, String acl) {
         BucketCannedACL cannedAcl = BucketCannedACL.fromValue(acl);
         PutBucketAclRequest request = PutBucketAclRequest.builder()
@@ -607,8 +1047,9 @@ public class S3Utilities {
         if (s3 != null) {
             s3.close();
         }
-        if (presigner != null) {
-            presigner.close();
+        S3Presigner p = presigner;
+        if (p != null) {
+            p.close();
         }
     }
 
@@ -639,10 +1080,20 @@ public class S3Utilities {
                 .bucket(bucketName)
                 .key(objectKey)
                 .versionId(versionId)
+                .checksumMode(checksumMode())
                 .build();
         return s3.getObject(request).response();
     }
 
+    public ResponseInputStream<GetObjectResponse> getObjectVersionAsStream(String bucketName, String objectKey, String versionId) {
+        return Compression.decode(s3.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .versionId(versionId)
+                .checksumMode(checksumMode())
+                .build()));
+    }
+
     public software.amazon.awssdk.services.s3.model.DeleteObjectResponse deleteObjectVersion(String bucketName, String objectKey, String versionId) {
         var deleteReq = software.amazon.awssdk.services.s3.model.DeleteObjectRequest.builder()
             .bucket(bucketName)
@@ -728,39 +1179,25 @@ public S3ObjectStreamWithResponse getObjectWithIfMatch(String bucketName, String
                 .bucket(bucketName)
                 .key(objectKey)
                 .ifNoneMatch(etag)
+                .checksumMode(checksumMode())
                 .build();
-        return s3.getObject(request);
+        return Compression.decode(s3.getObject(request));
     }
 
     public software.amazon.awssdk.services.s3.model.DeleteBucketResponse emptyBucketAllVersionsAndDelete(String bucket) {
-        var client = s3;
-        var paginator = client.listObjectVersionsPaginator(b -> b.bucket(bucket));
-        var toDelete = new java.util.ArrayList<software.amazon.awssdk.services.s3.model.ObjectIdentifier>();
-        for (var page : paginator) {
-            if (page.versions() != null) {
-                for (var v : page.versions()) {
-                    toDelete.add(software.amazon.awssdk.services.s3.model.ObjectIdentifier.builder().key(v.key()).versionId(v.versionId()).build());
-                    if (toDelete.size() == 1000) {
-                        client.deleteObjects(b -> b.bucket(bucket).delete(d -> d.objects(toDelete)));
-                        toDelete.clear();
-                    }
-                }
-            }
-            if (page.deleteMarkers() != null) {
-                for (var m : page.deleteMarkers()) {
-                    toDelete.add(software.amazon.awssdk.services.s3.model.ObjectIdentifier.builder().key(m.key()).versionId(m.versionId()).build());
-                    if (toDelete.size() == 1000) {
-                        client.deleteObjects(b -> b.bucket(bucket).delete(d -> d.objects(toDelete)));
-                        toDelete.clear();
-                    }
-                }
-            }
+        DeleteSummary summary = purgeVersions(bucket, null, null, null);
+        if (!summary.isSuccessful()) {
+            System.err.println("Error purging " + bucket + ": " + summary.failures().size() + " versions not deleted");
         }
-        if (!toDelete.isEmpty()) {
-            client.deleteObjects(b -> b.bucket(bucket).delete(d -> d.objects(toDelete)));
-            toDelete.clear();
-        }
-        return client.deleteBucket(b -> b.bucket(bucket));
+        return s3.deleteBucket(b -> b.bucket(bucket));
+    }
+
+    public DeleteSummary purgeVersions(String bucket, String prefix, Duration minAge, Consumer<PurgeProgress> progress) {
+        return new VersionPurger(s3, deleteWorkers).purge(bucket, prefix, minAge, purgeProgressInterval, progress);
+    }
+
+    public void setPurgeProgressInterval(Duration purgeProgressInterval) {
+        this.purgeProgressInterval = purgeProgressInterval;
     }
 
 }
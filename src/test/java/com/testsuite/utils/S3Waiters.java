@@ -0,0 +1,169 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+public class S3Waiters {
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    private static final long INITIAL_DELAY_MS = 100;
+    private static final long MAX_DELAY_MS = 5_000;
+
+    // timing lives on one scheduler thread; the blocking HEAD probes run on virtual threads
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(DaemonThreads.factory("s3-waiter-scheduler"));
+    private static final ExecutorService PROBES = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("s3-waiter-probe-", 0).factory());
+
+    private final S3Utilities s3Utils;
+    private final Duration defaultTimeout;
+
+    public S3Waiters(S3Utilities s3Utils) {
+        this(s3Utils, Duration.ofMillis(Config.getInt("s3WaitTimeoutMs", (int) DEFAULT_TIMEOUT.toMillis())));
+    }
+
+    public S3Waiters(S3Utilities s3Utils, Duration defaultTimeout) {
+        this.s3Utils = s3Utils;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public CompletableFuture<Void> bucketExistsAsync(String bucket, Duration timeout) {
+        return await("bucket " + bucket + " to exist", () -> {
+            try {
+                s3Utils.headBucket(bucket);
+                return true;
+            } catch (S3Exception e) {
+                return false;
+            }
+        }, timeout);
+    }
+
+    public CompletableFuture<Void> bucketNotExistsAsync(String bucket, Duration timeout) {
+        return await("bucket " + bucket + " to be deleted", () -> {
+            try {
+                s3Utils.headBucket(bucket);
+                return false;
+            } catch (S3Exception e) {
+                return e.statusCode() == 404;
+            }
+        }, timeout);
+    }
+
+    public CompletableFuture<Void> objectExistsAsync(String bucket, String key, Duration timeout) {
+        return await("object " + bucket + "/" + key + " to exist", () -> {
+            try {
+                s3Utils.headObject(bucket, key);
+                return true;
+            } catch (S3Exception e) {
+                return false;
+            }
+        }, timeout);
+    }
+
+    public CompletableFuture<Void> objectNotExistsAsync(String bucket, String key, Duration timeout) {
+        return await("object " + bucket + "/" + key + " to be deleted", () -> {
+            try {
+                s3Utils.headObject(bucket, key);
+                return false;
+            } catch (S3Exception e) {
+                return e.statusCode() == 404;
+            }
+        }, timeout);
+    }
+
+    public CompletableFuture<Void> versionVisibleAsync(String bucket, String key, String versionId, Duration timeout) {
+        return await("version " + versionId + " of " + bucket + "/" + key + " to be visible", () -> {
+            try {
+                s3Utils.headObjectVersion(bucket, key, versionId);
+                return true;
+            } catch (S3Exception e) {
+                return false;
+            }
+        }, timeout);
+    }
+
+    // any other condition that becomes true eventually, e.g. a background reset finishing
+    public CompletableFuture<Void> conditionAsync(String condition, BooleanSupplier probe, Duration timeout) {
+        return await(condition, probe, timeout);
+    }
+
+    public void waitForBucketExists(String bucket) {
+        join(bucketExistsAsync(bucket, defaultTimeout));
+    }
+
+    public void waitForBucketNotExists(String bucket) {
+        join(bucketNotExistsAsync(bucket, defaultTimeout));
+    }
+
+    public void waitForObjectExists(String bucket, String key) {
+        join(objectExistsAsync(bucket, key, defaultTimeout));
+    }
+
+    public void waitForObjectNotExists(String bucket, String key) {
+        join(objectNotExistsAsync(bucket, key, defaultTimeout));
+    }
+
+    public void waitForVersionVisible(String bucket, String key, String versionId) {
+        join(versionVisibleAsync(bucket, key, versionId, defaultTimeout));
+    }
+
+    public void waitFor(String condition, BooleanSupplier probe) {
+        join(await(condition, probe, defaultTimeout));
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private static CompletableFuture<Void> await(String condition, BooleanSupplier probe, Duration timeout) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        attempt(result, condition, probe, start, start + timeout.toNanos(), 1);
+        return result;
+    }
+
+    private static void attempt(CompletableFuture<Void> result, String condition, BooleanSupplier probe,
+            long start, long deadline, int attempt) {
+        PROBES.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                if (probe.getAsBoolean()) {
+                    result.complete(null);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                result.completeExceptionally(new WaiterTimeoutException(condition, attempt, Duration.ofNanos(now - start)));
+                return;
+            }
+            long delay = Math.min(TimeUnit.MILLISECONDS.toNanos(backoffMillis(attempt)), deadline - now);
+            SCHEDULER.schedule(() -> attempt(result, condition, probe, start, deadline, attempt + 1), delay, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_DELAY_MS, INITIAL_DELAY_MS << Math.min(attempt - 1, 16));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+}
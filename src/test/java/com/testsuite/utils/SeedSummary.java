@@ -0,0 +1,15 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+
+public record SeedSummary(long seeded, long resumedFrom, long failed, long bytes, Duration elapsed) {
+
+    public boolean isSuccessful() {
+        return failed == 0;
+    }
+
+    public double objectsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0 : seeded * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,12 @@
+package com.testsuite.utils;
+
+import java.util.List;
+
+public record SyncSummary(long transferred, long skipped, long bytesTransferred, List<Failure> failures) {
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    public record Failure(String key, String message) {}
+}
@@ -0,0 +1,85 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteMarkerEntry;
+import software.amazon.awssdk.services.s3.model.ListObjectVersionsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectVersion;
+
+// Deletes every object version and delete marker under a prefix. A lister thread streams
+// listObjectVersions pages into a BatchDeleter, whose workers send DeleteObjects batches concurrently
+// while the next pages are listed; the bounded batch queue keeps memory flat on huge buckets. The
+// calling thread only waits and reports progress.
+final class VersionPurger {
+    private final S3Client s3;
+    private final int workers;
+
+    VersionPurger(S3Client s3, int workers) {
+        this.s3 = s3;
+        this.workers = Math.max(1, workers);
+    }
+
+    // minAge, when set, keeps versions modified more recently than now - minAge
+    DeleteSummary purge(String bucket, String prefix, Duration minAge, Duration progressInterval, Consumer<PurgeProgress> progress) {
+        Instant cutoff = minAge == null ? null : Instant.now().minus(minAge);
+        long start = System.nanoTime();
+        AtomicLong listed = new AtomicLong();
+        ExecutorService lister = Executors.newSingleThreadExecutor(DaemonThreads.factory("s3-purge-list-" + bucket));
+        try (BatchDeleter deleter = new BatchDeleter(s3, bucket, workers)) {
+            CompletableFuture<DeleteSummary> result = CompletableFuture.supplyAsync(() -> {
+                var pages = s3.listObjectVersionsPaginator(b -> b.bucket(bucket).prefix(prefix).maxKeys(BatchDeleter.MAX_BATCH_SIZE));
+                for (ListObjectVersionsResponse page : pages) {
+                    for (ObjectVersion v : page.versions()) {
+                        if (cutoff == null || v.lastModified() == null || v.lastModified().isBefore(cutoff)) {
+                            listed.incrementAndGet();
+                            deleter.add(v.key(), v.versionId());
+                        }
+                    }
+                    for (DeleteMarkerEntry m : page.deleteMarkers()) {
+                        if (cutoff == null || m.lastModified() == null || m.lastModified().isBefore(cutoff)) {
+                            listed.incrementAndGet();
+                            deleter.add(m.key(), m.versionId());
+                        }
+                    }
+                }
+                return deleter.finish();
+            }, lister);
+            long intervalMillis = progressInterval == null || progressInterval.isZero() ? Long.MAX_VALUE : progressInterval.toMillis();
+            while (true) {
+                try {
+                    DeleteSummary summary = result.get(intervalMillis, TimeUnit.MILLISECONDS);
+                    report(progress, listed.get(), summary.deleted(), summary.failures().size(), start, true);
+                    return summary;
+                } catch (TimeoutException e) {
+                    report(progress, listed.get(), deleter.deleted(), deleter.failureCount(), start, false);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while purging " + bucket, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Purge of " + bucket + " failed", e.getCause());
+        } finally {
+            lister.shutdownNow();
+        }
+    }
+
+    private static void report(Consumer<PurgeProgress> progress, long listed, long deleted, long failed, long start, boolean done) {
+        if (progress != null) {
+            progress.accept(new PurgeProgress(listed, deleted, failed, Duration.ofNanos(System.nanoTime() - start), done));
+        }
+    }
+}
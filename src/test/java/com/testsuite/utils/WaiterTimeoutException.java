@@ -0,0 +1,22 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+
+public class WaiterTimeoutException extends RuntimeException {
+    private final int attempts;
+    private final Duration elapsed;
+
+    public WaiterTimeoutException(String condition, int attempts, Duration elapsed) {
+        super("Timed out after " + elapsed.toMillis() + " ms and " + attempts + " attempts waiting for " + condition);
+        this.attempts = attempts;
+        this.elapsed = elapsed;
+    }
+
+    public int attempts() {
+        return attempts;
+    }
+
+    public Duration elapsed() {
+        return elapsed;
+    }
+}
@@ -0,0 +1,10 @@
+package com.testsuite.utils;
+
+import java.time.Duration;
+
+public record WarmUpResult(int connections, int failed, Duration elapsed) {
+
+    public boolean isSuccessful() {
+        return failed == 0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.testsuite.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+// Declarative description of an open-loop load run, usually read from a properties file:
+//
+//   workload.put=20                 relative weights of the operation mix
+//   workload.get=60
+//   workload.head=10
+//   workload.list=5
+//   workload.delete=5
+//   workload.sizeMinBytes=1024      object sizes for PUT and preloading
+//   workload.sizeMaxBytes=1048576
+//   workload.sizeLogUniform=true
+//   workload.keys=10000             key space, laid out as prefix/dNN/.../obj-NNNNNNNNNN
+//   workload.keyPrefix=load
+//   workload.keyDepth=1
+//   workload.keyFanOut=16
+//   workload.zipfExponent=1.0       key popularity; 0 picks keys uniformly
+//   workload.rps=500                target arrival rate
+//   workload.poisson=true           exponential inter-arrival times instead of a fixed interval
+//   workload.durationSeconds=60
+//   workload.maxInFlight=10000      requests beyond this are dropped and reported, never delayed
+//   workload.preload=true           write every key once before the run so reads hit
+//   workload.seed=1                 random seed for arrivals, operations and keys
+public record WorkloadSpec(Map<Operation, Integer> mix, BucketSeeder.SizeDistribution sizes, BucketSeeder.Layout layout,
+                           int keys, double zipfExponent, double targetRps, boolean poisson, Duration duration,
+                           int maxInFlight, boolean preload, long seed) {
+
+    public enum Operation { PUT, GET, HEAD, LIST, DELETE }
+
+    public WorkloadSpec {
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+        if (mix.values().stream().anyMatch(w -> w < 0) || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Operation weights must be non-negative and not all zero: " + mix);
+        }
+        if (keys <= 0 || targetRps <= 0 || duration.isNegative() || duration.isZero() || maxInFlight <= 0 || zipfExponent < 0) {
+            throw new IllegalArgumentException("Invalid workload: keys=" + keys + ", rps=" + targetRps + ", duration="
+                    + duration + ", maxInFlight=" + maxInFlight + ", zipfExponent=" + zipfExponent);
+        }
+    }
+
+    public static WorkloadSpec load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    public static WorkloadSpec fromProperties(Properties p) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            mix.put(op, Integer.parseInt(p.getProperty("workload." + op.name().toLowerCase(Locale.ROOT), "0").trim()));
+        }
+        int minBytes = intValue(p, "sizeMinBytes", 1024);
+        return new WorkloadSpec(mix,
+                new BucketSeeder.SizeDistribution(minBytes, intValue(p, "sizeMaxBytes", minBytes),
+                        Boolean.parseBoolean(value(p, "sizeLogUniform", "false"))),
+                new BucketSeeder.Layout(value(p, "keyPrefix", "load"), intValue(p, "keyDepth", 1),
+                        intValue(p, "keyFanOut", 16), false),
+                intValue(p, "keys", 1000),
+                Double.parseDouble(value(p, "zipfExponent", "1.0")),
+                Double.parseDouble(value(p, "rps", "100")),
+                Boolean.parseBoolean(value(p, "poisson", "true")),
+                Duration.ofMillis((long) (Double.parseDouble(value(p, "durationSeconds", "60")) * 1000)),
+                intValue(p, "maxInFlight", 10_000),
+                Boolean.parseBoolean(value(p, "preload", "true")),
+                Long.parseLong(value(p, "seed", "1")));
+    }
+
+    public long plannedRequests() {
+        return (long) (targetRps * duration.toNanos() / 1e9);
+    }
+
+    private static String value(Properties p, String name, String defaultValue) {
+        String v = p.getProperty("workload." + name);
+        return v == null || v.isBlank() ? defaultValue : v.trim();
+    }
+
+    private static int intValue(Properties p, String name, int defaultValue) {
+        return Integer.parseInt(value(p, name, String.valueOf(defaultValue)));
+    }
+}